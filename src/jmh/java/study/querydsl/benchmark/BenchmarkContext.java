@@ -0,0 +1,64 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * 벤치마크용 스프링 컨텍스트 (H2 in-memory + 시드 데이터)
+ * application.yml 의 MySQL 설정보다 우선하도록 커맨드라인 인자로 덮어쓴다.
+ */
+final class BenchmarkContext {
+
+    static final int TEAM_COUNT = 10;
+    static final int MEMBER_COUNT = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.profiles.active=bench",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--decorator.datasource.p6spy.enable-logging=false",
+                        "--logging.level.org.hibernate.sql=warn"
+                );
+        seed(context);
+        return context;
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.executeWithoutResult(status -> {
+            Team[] teams = new Team[TEAM_COUNT];
+            for (int i = 0; i < TEAM_COUNT; i++) {
+                teams[i] = new Team("team" + i);
+                em.persist(teams[i]);
+            }
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                em.persist(new Member("member" + i, i % 100, teams[i % TEAM_COUNT]));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                    for (int t = 0; t < TEAM_COUNT; t++) {
+                        teams[t] = em.getReference(Team.class, teams[t].getId());
+                    }
+                }
+            }
+        });
+    }
+}
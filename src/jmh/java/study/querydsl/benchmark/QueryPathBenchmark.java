@@ -0,0 +1,183 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberDTO;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.DtoProjections;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * QueryDSLBasicTest 에서 비교해본 조회 방식들의 성능 비교
+ * ./gradlew jmh  (gc 프로파일러로 할당량도 같이 측정)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryPathBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberRepository memberRepository;
+    private JPAQueryFactory queryFactory;
+    private TransactionTemplate readOnlyTx;
+    private MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(40);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // BooleanBuilder vs where 다중 파라미터
+    @Benchmark
+    public List<MemberTeamDTO> searchByBuilder() {
+        return readOnlyTx.execute(status -> memberJpaRepository.searchByBuilder(condition));
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> searchByWhereParam() {
+        return readOnlyTx.execute(status -> queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .fetch());
+    }
+
+    // 검색 조건 shape 별로 미리 컴파일된 JPQL 템플릿 (MemberJpaRepository.search -> MemberSearchTemplates)
+    @Benchmark
+    public List<MemberTeamDTO> searchByTemplate() {
+        return readOnlyTx.execute(status -> memberJpaRepository.search(condition));
+    }
+
+    // JPQL vs QueryDSL vs 스프링 데이터 쿼리 메서드
+    @Benchmark
+    public List<Member> findByUsername_JPQL() {
+        return readOnlyTx.execute(status -> memberJpaRepository.findByUsername("member500"));
+    }
+
+    @Benchmark
+    public List<Member> findByUsername_QueryDSL() {
+        return readOnlyTx.execute(status -> memberJpaRepository.findByUsername_QueryDSL("member500"));
+    }
+
+    @Benchmark
+    public List<Member> findByUsername_SpringData() {
+        return readOnlyTx.execute(status -> memberRepository.findByUsername("member500"));
+    }
+
+    // DTO 프로젝션 방식 비교
+    @Benchmark
+    public List<MemberDTO> projectionBean() {
+        return readOnlyTx.execute(status -> queryFactory
+                .select(Projections.bean(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDTO> projectionFields() {
+        return readOnlyTx.execute(status -> queryFactory
+                .select(Projections.fields(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDTO> projectionConstructor() {
+        return readOnlyTx.execute(status -> queryFactory
+                .select(Projections.constructor(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDTO> projectionQueryProjection() {
+        return readOnlyTx.execute(status -> queryFactory
+                .select(new QMemberDTO(member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDTO> projectionDtoBean() {
+        return readOnlyTx.execute(status -> queryFactory
+                .select(DtoProjections.bean(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    @Benchmark
+    public List<MemberDTO> projectionDtoConstructor() {
+        return readOnlyTx.execute(status -> queryFactory
+                .select(DtoProjections.constructor(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch());
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 쓰기 트랜잭션 안에서 회원 전체(MEMBER_COUNT)를 엔티티로 조회 + flush 할 때
+ * 일반 조회와 읽기 전용 조회(HINT_READ_ONLY) 비교
+ * 스냅샷 생성 비용은 gc 프로파일러의 gc.alloc.rate.norm (op 당 할당량), flush 비용은 평균 시간으로 확인한다.
+ * ./gradlew jmh -Pjmh.includes=ReadOnlyQueryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadOnlyQueryBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberRepository memberRepository;
+    private TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        em = context.getBean(EntityManager.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findAll_managed() {
+        return loadAndFlush(memberJpaRepository::findAll);
+    }
+
+    @Benchmark
+    public int findAll_readOnly() {
+        return loadAndFlush(memberJpaRepository::findAllReadOnly);
+    }
+
+    @Benchmark
+    public int findAll_QueryDSL_managed() {
+        return loadAndFlush(memberJpaRepository::findAll_QueryDSL);
+    }
+
+    @Benchmark
+    public int findAll_QueryDSL_readOnly() {
+        return loadAndFlush(memberJpaRepository::findAllReadOnly_QueryDSL);
+    }
+
+    @Benchmark
+    public int springData_managed() {
+        return loadAndFlush(memberRepository::findAll);
+    }
+
+    @Benchmark
+    public int springData_readOnly() {
+        return loadAndFlush(memberRepository::findAllReadOnlyBy);
+    }
+
+    private int loadAndFlush(Supplier<List<Member>> loader) {
+        Integer size = tx.execute(status -> {
+            List<Member> members = loader.get();
+            em.flush(); // 관리 중인 엔티티 수만큼 dirty checking
+            status.setRollbackOnly();
+            return members.size();
+        });
+        return size != null ? size : 0;
+    }
+}
@@ -1,15 +1,16 @@
 package study.querydsl;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.persistence.Entity;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Profile("local")
 @Component
@@ -25,22 +26,25 @@ public class InitMember {
 
     @Component
     static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
+        private final MemberJpaRepository memberJpaRepository;
+
+        InitMemberService(MemberJpaRepository memberJpaRepository) {
+            this.memberJpaRepository = memberJpaRepository;
+        }
+
         @Transactional
         public void init() {    //스프링 라이프 사이클이 있어서 위의 init() 메서드에 못넣어줌 @PostConstruct 과 Transaction
             Team teamA = new Team("teamA");
             Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
 
+            List<Member> members = new ArrayList<>();
             for (int i = 0; i < 100; i++) {
                 Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
+                members.add(new Member("member" + i, i, selectedTeam));
             }
+            memberJpaRepository.saveAll(members); // 팀도 같이 저장됨
 
         }
     }
 
-
 }
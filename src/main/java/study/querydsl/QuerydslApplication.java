@@ -4,7 +4,9 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
 
 @SpringBootApplication
 public class QuerydslApplication {
@@ -15,8 +17,8 @@ public class QuerydslApplication {
 
 
     @Bean
-    public JPAQueryFactory jpaQueryFactory(EntityManager em) {
-        return new JPAQueryFactory(em);
+    public JPAQueryFactory jpaQueryFactory(EntityManager em, ApplicationEventPublisher publisher) {
+        return new DeadlineJPAQueryFactory(em, publisher);
     }
 
 }
@@ -0,0 +1,97 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션을 레플리카로 보내는 DataSource 설정
+ * querydsl.datasource.replica.enabled=true 일 때만 적용되고, 아니면 스프링 부트 기본 DataSource 를 사용한다.
+ * 커넥션 풀 설정은 primary 는 spring.datasource.hikari.*, replica 는 querydsl.datasource.replica.hikari.* 로 준다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public RoutingDataSource dataSource(DataSourceProperties primaryProperties,
+                                        @Value("${querydsl.datasource.replica.url}") String replicaUrl,
+                                        @Value("${querydsl.datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+                                        @Value("${querydsl.datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+                                        @Value("${querydsl.datasource.replica.driver-class-name:${spring.datasource.driver-class-name:}}") String replicaDriver,
+                                        @Value("${querydsl.datasource.replica.lag-query:}") String lagQuery,
+                                        @Value("${querydsl.datasource.replica.lag-column:}") String lagColumn,
+                                        @Value("${querydsl.datasource.replica.max-lag:5s}") Duration maxLag,
+                                        @Value("${querydsl.datasource.replica.check-interval:5s}") Duration checkInterval,
+                                        Environment environment) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        // 부트 기본 DataSource 와 같이 spring.datasource.hikari.* (풀 크기, timeout 등)를 적용
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        DataSourceBuilder<HikariDataSource> replicaBuilder = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword);
+        if (StringUtils.hasText(replicaDriver)) {
+            replicaBuilder.driverClassName(replicaDriver);
+        }
+        HikariDataSource replica = replicaBuilder.build();
+        replica.setPoolName("replica");
+        binder.bind("querydsl.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setReadOnly(true);
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica, lagQuery, lagColumn, maxLag);
+        lagMonitor.start(checkInterval);
+        return new RoutingDataSource(new ReplicaRoutingDataSource(primary, replica, lagMonitor), primary, replica, lagMonitor);
+    }
+
+    /**
+     * 커넥션을 첫 SQL 실행 시점까지 미뤄서 트랜잭션 readOnly 여부로 라우팅되게 하고, 종료 시 풀을 정리한다
+     */
+    public static class RoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+        private final HikariDataSource primary;
+        private final HikariDataSource replica;
+        private final ReplicaLagMonitor lagMonitor;
+
+        RoutingDataSource(ReplicaRoutingDataSource routing, HikariDataSource primary, HikariDataSource replica,
+                          ReplicaLagMonitor lagMonitor) {
+            super(routing);
+            this.primary = primary;
+            this.replica = replica;
+            this.lagMonitor = lagMonitor;
+        }
+
+        /**
+         * 라우팅 대상 커넥션 풀 (primary, replica) - 조회 시점의 라우팅과 관계없이 두 풀을 모두 돌려준다
+         */
+        public List<HikariDataSource> getPools() {
+            return List.of(primary, replica);
+        }
+
+        @Override
+        public void close() {
+            lagMonitor.close();
+            replica.close();
+            primary.close();
+        }
+    }
+}
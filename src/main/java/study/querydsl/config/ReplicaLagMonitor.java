@@ -0,0 +1,86 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 레플리카 복제 지연을 주기적으로 확인해서 읽기 라우팅 가능 여부를 판단한다.
+ * - lagQuery 가 없으면 연결 가능 여부만 확인 (H2 같은 로컬 대체 DB)
+ * - 지연이 maxLag 를 넘거나 확인에 실패하면 primary 로 보낸다
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final Duration maxLag;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean replicaUsable = true;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, String lagColumn, Duration maxLag) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLag = maxLag;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(Duration checkInterval) {
+        scheduler.scheduleWithFixedDelay(this::checkNow, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public void checkNow() {
+        boolean usable;
+        try (Connection connection = replica.getConnection()) {
+            usable = connection.isValid(1) && lagWithinTolerance(connection);
+        } catch (SQLException | RuntimeException e) {
+            log.warn("replica check failed, routing reads to primary: {}", e.getMessage());
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            log.info("replica usable changed: {} -> {}", replicaUsable, usable);
+        }
+        replicaUsable = usable;
+    }
+
+    private boolean lagWithinTolerance(Connection connection) throws SQLException {
+        if (!StringUtils.hasText(lagQuery)) {
+            return true;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return false; // 복제 상태가 없으면 레플리카로 보지 않음
+            }
+            long lagSeconds = StringUtils.hasText(lagColumn) ? rs.getLong(lagColumn) : rs.getLong(1);
+            if (rs.wasNull()) {
+                return false; // 복제가 멈춘 상태 (Seconds_Behind_Source = NULL)
+            }
+            return lagSeconds <= maxLag.toSeconds();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+/**
+ * 하이버네이트 2차 캐시가 사용할 JCache CacheManager
+ * 하이버네이트가 직접 만들게 두면 밖에서 같은 인스턴스를 찾을 수 없으므로 빈으로 만들어 넘겨주고,
+ * 같은 CacheManager 의 region 별 통계(eviction 포함)를 micrometer 로 노출한다 (SecondLevelCacheMetrics).
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
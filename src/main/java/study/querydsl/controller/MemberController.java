@@ -1,14 +1,30 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberFacetDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.KeysetCursor;
+import study.querydsl.service.ExportFormat;
+import study.querydsl.service.MemberExportService;
+import study.querydsl.service.MemberStreamService;
 
 import java.util.List;
 
@@ -16,8 +32,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberExportService memberExportService;
+    private final MemberStreamService memberStreamService;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition) {
@@ -31,5 +51,65 @@ public class MemberController {
     public Page<MemberTeamDTO> searchMemberV3 (MemberSearchCondition condition, Pageable pageable) {
         return memberRepository.searchPageComplex( condition, pageable);
     }
+    @GetMapping("/v4/members")
+    public ResponseEntity<CursorSlice<MemberTeamDTO>> searchMemberV4(MemberSearchCondition condition,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "20") int size) {
+        try {
+            KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // 클라이언트가 만든 잘못된 cursor
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return ResponseEntity.ok(memberRepository.searchByCursor(condition, cursor, pageSize));
+    }
+
+    @GetMapping("/v1/members/facets")
+    public MemberFacetDTO searchMemberFacets(MemberSearchCondition condition,
+                                             @RequestParam(defaultValue = "10,20,30,40,50,60") List<Integer> ageBounds) {
+        return memberRepository.searchFacets(condition, ageBounds);
+    }
+
+    @GetMapping("/v1/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers(MemberSearchCondition condition,
+                                                               @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build(); // 지원하지 않는 format
+        }
+        StreamingResponseBody body = out -> memberExportService.export(condition, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + exportFormat.getExtension())
+                .body(body);
+    }
+
+    @GetMapping(value = "/v1/members/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMembers(MemberSearchCondition condition,
+                                                               @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            memberStreamService.validateCursor(lastEventId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> memberStreamService.stream(condition, lastEventId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noCache())
+                .header("X-Accel-Buffering", "no") // 프록시(nginx) 버퍼링 끄기
+                .body(body);
+    }
+
+    /**
+     * 요청 deadline 을 넘긴 쿼리 (QueryDeadlineFilter) - DB 에서 취소된 경우와 실행 전에 포기한 경우 모두
+     */
+    @ExceptionHandler({QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class})
+    public ResponseEntity<Void> queryTimeout() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 
 }
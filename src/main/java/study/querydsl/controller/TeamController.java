@@ -0,0 +1,37 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamStatsDTO;
+import study.querydsl.service.TeamStatsService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsService teamStatsService;
+
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatsDTO> teamStats(@RequestParam(required = false) String name) {
+        if (StringUtils.hasText(name)) {
+            return teamStatsService.findByTeamName(name);
+        }
+        return teamStatsService.findAll();
+    }
+
+    @PostMapping("/v1/teams/stats/rebuild")
+    public int rebuildTeamStats() {
+        return teamStatsService.rebuild();
+    }
+
+    @GetMapping("/v1/teams/stats/check")
+    public List<Long> checkTeamStats() {
+        return teamStatsService.findInconsistentTeams();
+    }
+}
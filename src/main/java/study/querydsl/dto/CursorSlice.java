@@ -0,0 +1,22 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 커서(keyset) 기반 조회 결과
+ * nextCursor 는 클라이언트가 해석하지 않는 불투명 토큰으로, 다음 조회 시 그대로 넘겨주면 된다.
+ */
+@Getter
+public class CursorSlice<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorSlice(List<T> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+}
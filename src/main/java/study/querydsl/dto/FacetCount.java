@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+/**
+ * facet 값 하나와 해당 값에 속하는 결과 수
+ */
+@Getter
+public class FacetCount {
+    private final String value;
+    private final long count;
+
+    public FacetCount(String value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 검색 조건에 해당하는 전체 수 + 팀별 / 나이 구간별 count
+ */
+@Getter
+public class MemberFacetDTO {
+    private final long total;
+    private final List<FacetCount> teams;
+    private final List<FacetCount> ageBuckets;
+
+    public MemberFacetDTO(long total, List<FacetCount> teams, List<FacetCount> ageBuckets) {
+        this.total = total;
+        this.teams = teams;
+        this.ageBuckets = ageBuckets;
+    }
+}
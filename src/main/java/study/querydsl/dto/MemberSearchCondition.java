@@ -1,13 +1,30 @@
 package study.querydsl.dto;
 
 import lombok.Data;
+import org.springframework.util.StringUtils;
 
 @Data
 public class MemberSearchCondition {
 
     private String username;
+    private String usernameStartsWith;  // username 접두어 (대소문자 무시)
+    private String usernameContains;    // username 부분 문자열 (대소문자 무시)
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
 
+    /**
+     * 검색 조건에서 무시되는 빈 문자열을 null 로 정리한 사본 (캐시 key 용)
+     */
+    public MemberSearchCondition normalized() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUsername(StringUtils.hasText(username) ? username : null);
+        normalized.setUsernameStartsWith(StringUtils.hasText(usernameStartsWith) ? usernameStartsWith : null);
+        normalized.setUsernameContains(StringUtils.hasText(usernameContains) ? usernameContains : null);
+        normalized.setTeamName(StringUtils.hasText(teamName) ? teamName : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return normalized;
+    }
+
 }
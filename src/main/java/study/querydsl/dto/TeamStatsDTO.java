@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamStatsDTO {
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private double averageAge;
+    private Integer minAge;
+    private Integer maxAge;
+
+    @QueryProjection
+    public TeamStatsDTO(Long teamId, String teamName, long memberCount, long ageSum, Integer minAge, Integer maxAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.averageAge = memberCount > 0 ? (double) ageSum / memberCount : 0;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+}
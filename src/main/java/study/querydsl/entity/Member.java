@@ -10,7 +10,8 @@ import lombok.*;
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50) // pooled optimizer - 50건마다 한 번만 시퀀스 조회
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -5,15 +5,20 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 거의 바뀌지 않는 작은 테이블 -> 2차 캐시
 @Getter@Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Team {
-    @Id@GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50) // IDENTITY 는 insert 배치가 안되므로 시퀀스 사용
     @Column(name = "team_id")
     private Long id;
     private String name;
@@ -0,0 +1,54 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 팀별 회원 통계 요약 테이블
+ * Member 변경 시 TeamStatsListener 가 같은 트랜잭션 안에서 증감분을 반영하고,
+ * 벌크 연산 이후에는 TeamStatsService 가 member 테이블로부터 다시 계산한다.
+ */
+@Entity
+@Getter
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public TeamStats(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public double getAverageAge() {
+        return memberCount > 0 ? (double) ageSum / memberCount : 0;
+    }
+
+    public void add(long count, long sum) {
+        this.memberCount += count;
+        this.ageSum += sum;
+    }
+
+    public void changeAgeRange(Integer minAge, Integer maxAge) {
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    public void reset(long memberCount, long ageSum, Integer minAge, Integer maxAge) {
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+}
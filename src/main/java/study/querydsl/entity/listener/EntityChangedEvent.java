@@ -0,0 +1,41 @@
+package study.querydsl.entity.listener;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 엔티티 변경이 커밋된 이후에 발행되는 스프링 이벤트
+ * 캐시 무효화 등 커밋된 데이터 기준으로 동작해야 하는 곳에서 구독한다.
+ */
+@Getter
+@ToString(of = {"entityType", "changeType", "id"})
+public class EntityChangedEvent {
+
+    public enum ChangeType {
+        INSERT, UPDATE, DELETE,
+        /**
+         * QueryDSL update()/delete() 같은 벌크 연산 - 어떤 row 가 바뀌었는지 알 수 없다
+         */
+        BULK
+    }
+
+    private final Class<?> entityType;
+    private final ChangeType changeType;
+    private final Object id;        // BULK 이면 null
+    private final Object entity;    // BULK 이면 null
+
+    public EntityChangedEvent(Class<?> entityType, ChangeType changeType, Object id, Object entity) {
+        this.entityType = entityType;
+        this.changeType = changeType;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    public static EntityChangedEvent bulk(Class<?> entityType) {
+        return new EntityChangedEvent(entityType, ChangeType.BULK, null, null);
+    }
+
+    public boolean isBulk() {
+        return changeType == ChangeType.BULK;
+    }
+}
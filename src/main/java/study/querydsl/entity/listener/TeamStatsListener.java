@@ -0,0 +1,244 @@
+package study.querydsl.entity.listener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.TeamStats;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member insert / update / delete 를 받아서 TeamStats 를 증분 갱신한다.
+ * flush 시점마다 세션별로 증감분을 모아두고, 커밋 직전(before transaction completion)에 팀 단위로 한 번씩 반영하므로
+ * 통계는 member 변경과 같은 트랜잭션으로 커밋 / 롤백된다.
+ * 이전 상태를 알 수 없는 변경은 커밋 후 BULK 이벤트를 발행해서 TeamStatsService 가 다시 계산하게 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final ApplicationEventPublisher publisher;
+    private final Map<SharedSessionContractImplementor, Deltas> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team) {
+            deltas(event.getSession()).team((Long) event.getId()).created = true; // 회원이 없는 팀도 통계 row 를 만들어 둔다
+        } else if (event.getEntity() instanceof Member) {
+            Object[] state = event.getState();
+            EntityPersister persister = event.getPersister();
+            add(deltas(event.getSession()), state[index(persister, "team")], state[index(persister, "age")]);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Deltas deltas = deltas(event.getSession());
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            deltas.rebuild = true; // 분리된 엔티티 update 등 이전 값을 모르는 경우
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        int teamIndex = index(persister, "team");
+        int ageIndex = index(persister, "age");
+        Object[] state = event.getState();
+        if (Objects.equals(teamId(oldState[teamIndex]), teamId(state[teamIndex]))
+                && Objects.equals(oldState[ageIndex], state[ageIndex])) {
+            return; // 통계에 영향 없는 변경 (username 등)
+        }
+        remove(deltas, oldState[teamIndex], oldState[ageIndex]);
+        add(deltas, state[teamIndex], state[ageIndex]);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Team) {
+            deltas(event.getSession()).team((Long) event.getId()).deleted = true;
+        } else if (event.getEntity() instanceof Member) {
+            Object[] state = event.getDeletedState();
+            EntityPersister persister = event.getPersister();
+            remove(deltas(event.getSession()), state[index(persister, "team")], state[index(persister, "age")]);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void add(Deltas deltas, Object team, Object age) {
+        Long teamId = teamId(team);
+        if (teamId == null) {
+            return;
+        }
+        int value = (Integer) age;
+        TeamDelta delta = deltas.team(teamId);
+        delta.count++;
+        delta.sum += value;
+        delta.addedMin = delta.addedMin == null ? value : Math.min(delta.addedMin, value);
+        delta.addedMax = delta.addedMax == null ? value : Math.max(delta.addedMax, value);
+    }
+
+    private void remove(Deltas deltas, Object team, Object age) {
+        Long teamId = teamId(team);
+        if (teamId == null) {
+            return;
+        }
+        TeamDelta delta = deltas.team(teamId);
+        delta.count--;
+        delta.sum -= (Integer) age;
+        delta.removed = true;
+    }
+
+    /**
+     * 세션에서 처음 변경이 생길 때 커밋 직전 / 완료 후 처리를 한 번만 등록한다
+     */
+    private Deltas deltas(EventSource session) {
+        return pending.computeIfAbsent(session, key -> {
+            Deltas deltas = new Deltas();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> apply(s, deltas));
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> {
+                pending.remove(key);
+                if (success && deltas.rebuild) {
+                    publisher.publishEvent(EntityChangedEvent.bulk(Member.class));
+                }
+            });
+            return deltas;
+        });
+    }
+
+    private void apply(SessionImplementor session, Deltas deltas) {
+        // 이 시점 이후의 flush 에서 생긴 변경은 다음 트랜잭션 몫으로 새로 모은다
+        pending.remove(session);
+        if (deltas.teams.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Long, TeamDelta> entry : deltas.teams.entrySet()) {
+            Long teamId = entry.getKey();
+            TeamDelta delta = entry.getValue();
+            if (delta.deleted) {
+                TeamStats stats = session.find(TeamStats.class, teamId);
+                if (stats != null) {
+                    session.remove(stats);
+                }
+                continue;
+            }
+            TeamStats stats;
+            if (delta.created) {
+                // 이 트랜잭션에서 만든 팀 - 커밋 전에는 다른 트랜잭션이 이 팀의 회원을 만들 수 없으므로 lock 없이 바로 만든다
+                stats = new TeamStats(teamId);
+                session.persist(stats);
+            } else {
+                // 없는 row 를 PESSIMISTIC_WRITE 로 조회하면 InnoDB 가 gap lock 을 잡고, 동시에 persist 하는 트랜잭션끼리 deadlock / 중복 키가 난다.
+                // 그래서 lock 없이 먼저 확인하고 있는 row 만 lock 하며, 없으면(통계 도입 전 팀 등) 커밋 후 재계산에 맡긴다.
+                stats = session.find(TeamStats.class, teamId);
+                if (stats == null) {
+                    deltas.rebuild = true;
+                    continue;
+                }
+                // 같은 팀을 동시에 갱신하는 트랜잭션끼리는 row lock 으로 순서대로 반영 (lock 과 함께 최신 값으로 다시 읽음)
+                session.refresh(stats, LockModeType.PESSIMISTIC_WRITE);
+            }
+            stats.add(delta.count, delta.sum);
+            if (stats.getMemberCount() <= 0) {
+                stats.changeAgeRange(null, null);
+            } else if (delta.removed) {
+                // 최소 / 최대값이 빠졌을 수 있으므로 해당 팀만 다시 계산 (flush 이후라 이 트랜잭션의 변경도 보인다)
+                // REPEATABLE READ 의 일반 select 는 트랜잭션 첫 조회 시점 스냅샷이라 그 사이 커밋된 회원이 빠질 수 있으므로
+                // locking read(for share) 로 최신 커밋 값을 읽고, 아직 커밋 전인 변경은 끝날 때까지 기다린다.
+                Object[] range = session
+                        .createNativeQuery("select min(age), max(age) from member where team_id = :teamId for share", Object[].class)
+                        .setParameter("teamId", teamId)
+                        .getSingleResult();
+                stats.changeAgeRange(toInteger(range[0]), toInteger(range[1]));
+            } else if (delta.addedMin != null) {
+                stats.changeAgeRange(
+                        stats.getMinAge() == null ? delta.addedMin : Math.min(stats.getMinAge(), delta.addedMin),
+                        stats.getMaxAge() == null ? delta.addedMax : Math.max(stats.getMaxAge(), delta.addedMax));
+            }
+        }
+        session.flush();
+    }
+
+    private static int index(EntityPersister persister, String property) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(property)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("no property " + property + " in " + persister.getEntityName());
+    }
+
+    private static Integer toInteger(Object value) {
+        return value == null ? null : ((Number) value).intValue();
+    }
+
+    private static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    private static class Deltas {
+        private final Map<Long, TeamDelta> teams = new HashMap<>();
+        private boolean rebuild;
+
+        private TeamDelta team(Long teamId) {
+            return teams.computeIfAbsent(teamId, id -> new TeamDelta());
+        }
+    }
+
+    private static class TeamDelta {
+        private long count;
+        private long sum;
+        private Integer addedMin;
+        private Integer addedMax;
+        private boolean removed;
+        private boolean deleted;
+        private boolean created;
+    }
+}
@@ -0,0 +1,225 @@
+package study.querydsl.monitor;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.ReplicaDataSourceConfig.RoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD 방식의 동시 실행 수 제한
+ * - 요청이 끝날 때 응답 시간이 기준보다 길거나 커넥션 풀에 대기 스레드가 있으면 limit 을 비율로 줄이고(multiplicative decrease, 한 구간에 한 번)
+ * - 그렇지 않고 limit 까지 꽉 채워서 쓰고 있었으면 1 씩 늘린다(additive increase)
+ * limit 을 넘는 요청은 maxWait 동안만 기다리고, 대기열(maxQueue)이 차 있거나 시간 안에 자리가 나지 않으면 거절한다.
+ * 현재 limit / 실행 중 / 대기 중 수와 거절 수는 querydsl.limiter.* 메트릭으로 노출한다.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final ObjectProvider<DataSource> dataSources;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final long maxWaitNanos;
+    private final int maxQueue;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long lastDecreaseAt;
+    private boolean decreased;
+    private final Counter rejected;
+    private volatile List<HikariDataSource> pools;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      ObjectProvider<DataSource> dataSources,
+                                      @Value("${querydsl.limiter.initial-limit:20}") int initialLimit,
+                                      @Value("${querydsl.limiter.min-limit:4}") int minLimit,
+                                      @Value("${querydsl.limiter.max-limit:200}") int maxLimit,
+                                      @Value("${querydsl.limiter.latency-threshold:500ms}") Duration latencyThreshold,
+                                      @Value("${querydsl.limiter.max-wait:50ms}") Duration maxWait,
+                                      @Value("${querydsl.limiter.max-queue:50}") int maxQueue,
+                                      @Value("${querydsl.limiter.backoff-ratio:0.9}") double backoffRatio) {
+        this.dataSources = dataSources;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueue = maxQueue;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        Gauge.builder("querydsl.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("querydsl.limiter.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("requests currently executing")
+                .register(meterRegistry);
+        Gauge.builder("querydsl.limiter.queue", this, AdaptiveConcurrencyLimiter::getWaiting)
+                .description("requests waiting for a permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("querydsl.limiter.rejected")
+                .description("requests rejected by the concurrency limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return 실행 허가, 거절되면 null
+     */
+    public Permit tryAcquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                if (waiting >= maxQueue) {
+                    rejected.increment();
+                    return null;
+                }
+                waiting++;
+                try {
+                    long remaining = maxWaitNanos;
+                    while (inFlight >= (int) limit) {
+                        if (remaining <= 0) {
+                            rejected.increment();
+                            return null;
+                        }
+                        remaining = released.awaitNanos(remaining);
+                    }
+                } finally {
+                    waiting--;
+                }
+            }
+            inFlight++;
+            return new Permit(System.nanoTime(), inFlight >= (int) limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getRejectedCount() {
+        return rejected.count();
+    }
+
+    private void release(Permit permit) {
+        long latency = System.nanoTime() - permit.startedAt;
+        boolean overloaded = latency > latencyThresholdNanos || isPoolSaturated();
+        lock.lock();
+        try {
+            inFlight--;
+            if (overloaded) {
+                // 같은 과부하 구간에 끝나는 요청들은 한 번만 줄인다 (요청마다 줄이면 한 번에 backoffRatio^N 으로 떨어짐)
+                // 마지막 감소 이후 latency threshold 가 지났고, 감소 이후에 시작한 요청일 때만 다시 줄인다
+                long now = System.nanoTime();
+                if (!decreased || (now - lastDecreaseAt >= latencyThresholdNanos && permit.startedAt - lastDecreaseAt >= 0)) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseAt = now;
+                    decreased = true;
+                }
+            } else if (permit.saturated) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 어느 커넥션 풀이든 커넥션을 기다리는 스레드가 있으면 DB 쪽이 이미 한계
+     */
+    private boolean isPoolSaturated() {
+        for (HikariDataSource pool : hikariPools()) {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean(); // 풀 시작 전이면 null
+            if (mxBean != null && mxBean.getThreadsAwaitingConnection() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 레플리카 라우팅을 쓰면 primary / replica 풀을 모두 본다
+     * (라우팅 DataSource 를 unwrap 하면 그 시점의 lookup 으로 정해지는 풀 하나만 나오므로 직접 꺼낸다)
+     */
+    private List<HikariDataSource> hikariPools() {
+        if (pools == null) {
+            DataSource dataSource = dataSources.getIfAvailable();
+            try {
+                if (dataSource == null) {
+                    return List.of();
+                }
+                if (dataSource.isWrapperFor(RoutingDataSource.class)) {
+                    pools = dataSource.unwrap(RoutingDataSource.class).getPools();
+                } else if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    pools = List.of(dataSource.unwrap(HikariDataSource.class));
+                } else {
+                    pools = List.of();
+                }
+            } catch (SQLException e) {
+                return List.of();
+            }
+        }
+        return pools;
+    }
+
+    public final class Permit implements AutoCloseable {
+
+        private final long startedAt;
+        private final boolean saturated; // limit 까지 꽉 채워서 실행된 요청
+        private boolean closed;
+
+        private Permit(long startedAt, boolean saturated) {
+            this.startedAt = startedAt;
+            this.saturated = saturated;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(this);
+            }
+        }
+    }
+}
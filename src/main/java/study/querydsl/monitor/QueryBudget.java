@@ -0,0 +1,42 @@
+package study.querydsl.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * SQL 실행 수 예산 - 초과하거나 같은 SQL 이 반복되면(N+1 의심) 경고 로그를 남긴다
+ */
+@Slf4j
+@Component
+public class QueryBudget {
+
+    private final long maxStatements;
+    private final int repeatThreshold;
+
+    public QueryBudget(@Value("${querydsl.sql-budget.max-statements:20}") long maxStatements,
+                       @Value("${querydsl.sql-budget.repeat-threshold:5}") int repeatThreshold) {
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * @return 예산 안이면 true
+     */
+    public boolean check(String scope, QueryCount count) {
+        boolean ok = true;
+        if (count.getTotal() > maxStatements) {
+            log.warn("[sql-budget] {} executed {} statements (budget {})", scope, count.getTotal(), maxStatements);
+            ok = false;
+        }
+        Map<String, Integer> repeated = count.getRepeatedShapes(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            repeated.forEach((sql, times) ->
+                    log.warn("[sql-budget] {} repeated the same statement {} times (possible N+1): {}", scope, times, sql));
+            ok = false;
+        }
+        return ok;
+    }
+}
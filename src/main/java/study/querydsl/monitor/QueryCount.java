@@ -0,0 +1,43 @@
+package study.querydsl.monitor;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 한 범위(HTTP 요청 / 트랜잭션) 안에서 실행된 SQL 수
+ * 같은 모양(바인딩 전 '?' 상태의 SQL)이 몇 번 반복됐는지도 같이 센다 -> N+1 탐지
+ */
+public class QueryCount {
+
+    private long total;
+    private final Map<String, Integer> byShape = new LinkedHashMap<>();
+
+    void record(String sql) {
+        total++;
+        if (sql != null) {
+            byShape.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Integer> getByShape() {
+        return Collections.unmodifiableMap(byShape);
+    }
+
+    /**
+     * @return threshold 번 이상 반복된 SQL 과 실행 횟수
+     */
+    public Map<String, Integer> getRepeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        byShape.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
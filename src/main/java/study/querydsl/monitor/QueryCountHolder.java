@@ -0,0 +1,32 @@
+package study.querydsl.monitor;
+
+/**
+ * 현재 스레드의 SQL 카운트 범위
+ * HTTP 요청은 QueryBudgetFilter 가 열고 닫으며, 테스트에서는 직접 start() 해서 사용한다.
+ */
+public final class QueryCountHolder {
+
+    private static final ThreadLocal<QueryCount> current = new ThreadLocal<>();
+
+    private QueryCountHolder() {
+    }
+
+    public static QueryCount start() {
+        QueryCount count = new QueryCount();
+        current.set(count);
+        return count;
+    }
+
+    /**
+     * @return 시작된 범위가 없으면 null
+     */
+    public static QueryCount current() {
+        return current.get();
+    }
+
+    public static QueryCount stop() {
+        QueryCount count = current.get();
+        current.remove();
+        return count;
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.monitor;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 가 감싼 DataSource 에서 실행되는 모든 SQL 을 센다.
+ * (p6spy-spring-boot-starter 는 JdbcEventListener 빈을 자동으로 등록한다)
+ * - 현재 스레드의 QueryCountHolder 범위
+ * - 현재 스프링 트랜잭션 범위 (트랜잭션 종료 시 예산 검사)
+ *   REQUIRES_NEW 등으로 트랜잭션이 일시 중단되면 카운트도 같이 내려서, 안쪽 트랜잭션은 자기 카운트로 따로 센다.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountListener extends SimpleJdbcEventListener {
+
+    private final QueryBudget queryBudget;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+
+        QueryCount requestCount = QueryCountHolder.current();
+        if (requestCount != null) {
+            requestCount.record(sql);
+        }
+
+        QueryCount transactionCount = transactionCount();
+        if (transactionCount != null) {
+            transactionCount.record(sql);
+        }
+    }
+
+    private QueryCount transactionCount() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        QueryCount count = (QueryCount) TransactionSynchronizationManager.getResource(this);
+        if (count == null) {
+            QueryCount newCount = new QueryCount();
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            TransactionSynchronizationManager.bindResource(this, newCount);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(QueryCountListener.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(QueryCountListener.this, newCount);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(QueryCountListener.this);
+                    queryBudget.check("transaction " + name, newCount);
+                }
+            });
+            count = newCount;
+        }
+        return count;
+    }
+}
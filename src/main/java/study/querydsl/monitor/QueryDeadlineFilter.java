@@ -0,0 +1,48 @@
+package study.querydsl.monitor;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.querydsl.repository.support.QueryDeadline;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * MemberController 검색 API 의 요청 단위 deadline
+ * 요청 안에서 실행되는 쿼리는 남은 시간만큼만 DB 에서 실행된다 (QueryDeadline 참고).
+ * export / stream 은 응답을 오래 내려보내는 API 라 대상이 아니다.
+ */
+@Component
+public class QueryDeadlineFilter extends OncePerRequestFilter {
+
+    private static final Set<String> DEADLINE_PATHS = Set.of(
+            "/v1/members", "/v2/members", "/v3/members", "/v4/members", "/v1/members/facets");
+
+    private final Duration timeout;
+
+    public QueryDeadlineFilter(@Value("${querydsl.deadline.timeout:3s}") Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !DEADLINE_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryDeadline.start(timeout);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryDeadline.stop();
+        }
+    }
+}
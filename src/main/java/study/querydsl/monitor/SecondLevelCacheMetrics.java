@@ -0,0 +1,36 @@
+package study.querydsl.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.TeamRepository;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+/**
+ * 2차 캐시 region 별 hit / miss / put / eviction 을 cache.* 메트릭으로 노출한다
+ * (하이버네이트 통계 메트릭에는 eviction 이 없어서 Caffeine JCache 통계를 그대로 바인딩)
+ * 쿼리 캐시 region 은 첫 조회 때 만들어지므로 미리 만들어 두고 바인딩한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics {
+
+    private final CacheManager hibernateCacheManager;
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bind() {
+        hibernateCacheManager.getCache(TeamRepository.TEAM_BY_NAME_REGION); // application.conf 설정으로 생성
+        for (String name : hibernateCacheManager.getCacheNames()) {
+            Cache<Object, Object> cache = hibernateCacheManager.getCache(name);
+            if (cache != null) {
+                JCacheMetrics.monitor(meterRegistry, cache);
+            }
+        }
+    }
+}
@@ -3,6 +3,9 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberFacetDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 
@@ -13,4 +16,23 @@ public interface MemberCustomRepository {
     List<MemberTeamDTO> search(MemberSearchCondition condition);
     Page<MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable, PageStrategy strategy);
+
+    /**
+     * offset 없이 member.id > lastId 조건으로 이어서 조회하는 keyset 페이징
+     * @param cursor 이전 결과의 nextCursor (첫 페이지는 null)
+     */
+    CursorSlice<MemberTeamDTO> searchByCursor(MemberSearchCondition condition, String cursor, int size);
+
+    /**
+     * member.id 범위를 parallelism 개로 나눠서 각 범위를 별도 스레드 / 트랜잭션에서 동시에 조회한 뒤 합친다
+     * @param sort memberId, username, age, teamId, teamName 정렬 지원 (unsorted 면 memberId 순)
+     */
+    List<MemberTeamDTO> searchParallel(MemberSearchCondition condition, Sort sort, int parallelism);
+
+    /**
+     * 검색 결과의 전체 수, 팀별 수, 나이 구간별 수를 group by 쿼리 한 번으로 조회
+     * @param ageBounds 나이 구간 경계 (예: 10, 20 -> ~9, 10~19, 20~)
+     */
+    MemberFacetDTO searchFacets(MemberSearchCondition condition, List<Integer> ageBounds);
 }
@@ -5,35 +5,77 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberSearchTemplates;
+import study.querydsl.repository.support.MemberUsernameIndex;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.team;
 
 @Repository
+@Transactional(readOnly = true) // 조회 메서드는 레플리카로 라우팅, 쓰기 메서드는 따로 @Transactional
 public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchTemplates searchTemplates;
+    private final MemberUsernameIndex usernameIndex;
+    private final int batchSize;
 
-    public MemberJpaRepository(EntityManager em, JPAQueryFactory jpaQueryFactory) {
+    public MemberJpaRepository(EntityManager em, JPAQueryFactory jpaQueryFactory, MemberSearchTemplates searchTemplates,
+                               MemberUsernameIndex usernameIndex,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
         this.em = em;
         this.queryFactory = jpaQueryFactory;
+        this.searchTemplates = searchTemplates;
+        this.usernameIndex = usernameIndex;
+        this.batchSize = batchSize;
     }
 
 
+    @Transactional
     public void save(Member member) {
         em.persist(member);
     }
 
+    /**
+     * 대량 저장용 - JDBC 배치 크기마다 flush() / clear() 해서 영속성 컨텍스트가 커지지 않게 한다.
+     * 아직 저장되지 않은 Team 은 같이 저장한다.
+     * 주의: 중간에 clear() 하므로 호출 전에 같은 트랜잭션에서 조회한 엔티티들은 준영속 상태가 된다.
+     * @return 저장한 회원 수
+     */
+    @Transactional
+    public int saveAll(Iterable<Member> members) {
+        int count = 0;
+        for (Member member : members) {
+            Team team = member.getTeam();
+            if (team != null && team.getId() == null) {
+                em.persist(team);
+            }
+            em.persist(member);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+
     public Optional<Member> findById(Long id) {
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
@@ -57,6 +99,30 @@ public class MemberJpaRepository {
         return queryFactory.selectFrom(member).where(member.username.eq(username)).fetch();
     }
 
+    /*
+     * 읽기 전용 조회 - 조회한 엔티티의 스냅샷을 만들지 않아서 메모리를 덜 쓰고 flush 시 dirty checking 대상에서도 빠진다.
+     * 조회한 엔티티를 수정해도 DB 에 반영되지 않는다.
+     * 읽기 전용 트랜잭션이 새로 시작되면 세션 전체가 이미 읽기 전용이므로, 쓰기 트랜잭션 안에서 대량 조회할 때 사용
+     */
+    public List<Member> findAllReadOnly() {
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    public List<Member> findAllReadOnly_QueryDSL() {
+        return queryFactory
+                .selectFrom(member)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .fetch();
+    }
+
+    public List<Member> findByUsernameReadOnly_QueryDSL(String username) {
+        return queryFactory.selectFrom(member)
+                .where(member.username.eq(username))
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .fetch();
+    }
 
     public List<MemberTeamDTO> searchByBuilder(MemberSearchCondition condition) {
 
@@ -91,6 +157,14 @@ public class MemberJpaRepository {
     }
 
     public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        return searchTemplates.search(condition);
+    }
+
+    /**
+     * search() 와 같은 조건이지만 결과를 한 번에 List 로 올리지 않고 fetchSize 단위로 읽어오는 Stream 으로 반환
+     * 반드시 트랜잭션 안에서 사용하고 다 쓴 뒤에는 close 해야 한다.
+     */
+    public Stream<MemberTeamDTO> streamSearch(MemberSearchCondition condition, int fetchSize) {
         return queryFactory.select(
                         new QMemberTeamDTO(
                                 member.id.as("memberId"),
@@ -104,19 +178,23 @@ public class MemberJpaRepository {
                 .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
                         teamNameEq(condition.getTeamName()),
                         ageGOE(condition.getAgeGoe()),
-                        ageLOE(condition.getAgeLoe() )
+                        ageLOE(condition.getAgeLoe())
                 )
-                .fetch();
-
-
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .stream();
     }
 
     private BooleanExpression usernameEq(String username) {
         return StringUtils.hasText(username) ? member.username.eq(username) : null;
     }
 
+    private BooleanExpression usernameMatches(MemberSearchCondition condition) {
+        return usernameIndex.predicate(condition);
+    }
+
     private BooleanExpression teamNameEq(String teamName) {
         return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
     }
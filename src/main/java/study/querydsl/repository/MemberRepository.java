@@ -1,6 +1,9 @@
 package study.querydsl.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import study.querydsl.entity.Member;
 
@@ -8,4 +11,11 @@ import java.util.List;
 
 public interface MemberRepository extends JpaRepository<Member, Long>,MemberCustomRepository, QuerydslPredicateExecutor<Member> {
     List<Member> findByUsername(String username);
+
+    // 읽기 전용 엔티티로 조회 (스냅샷 / dirty checking 없음, 수정해도 반영되지 않음)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Member> findReadOnlyByUsername(String username);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Member> findAllReadOnlyBy();
 }
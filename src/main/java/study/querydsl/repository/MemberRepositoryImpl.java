@@ -1,64 +1,233 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.support.PageableUtils;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.FacetCount;
+import study.querydsl.dto.MemberFacetDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+import study.querydsl.repository.support.DeferredJoin;
+import study.querydsl.repository.support.KeysetCursor;
+import study.querydsl.repository.support.MemberCountCache;
+import study.querydsl.repository.support.MemberSearchResultCache;
+import study.querydsl.repository.support.MemberSearchTemplates;
+import study.querydsl.repository.support.MemberUsernameIndex;
+import study.querydsl.repository.support.QueryExecutor;
 
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
+@Transactional(readOnly = true) // 조회 전용 - 레플리카 라우팅 대상
 public class MemberRepositoryImpl implements MemberCustomRepository {
 
     private final JPAQueryFactory queryFactory;
+    private final boolean supportsWindowFunctions;
+    private final MemberCountCache countCache;
+    private final MemberSearchTemplates searchTemplates;
+    private final QueryExecutor queryExecutor;
+    private final MemberUsernameIndex usernameIndex;
+    private final MemberSearchResultCache resultCache;
 // spring bean 주입
 //    public MemberCustomRepositoryImpl(JPAQueryFactory jpaQueryFactory) {
 //        this.jpaQueryFactory = jpaQueryFactory;
 //    }
 
-    public MemberRepositoryImpl(EntityManager em) {
-        this.queryFactory = new JPAQueryFactory(em);
+    public MemberRepositoryImpl(EntityManager em, MemberCountCache countCache, MemberSearchTemplates searchTemplates,
+                                QueryExecutor queryExecutor, MemberUsernameIndex usernameIndex,
+                                MemberSearchResultCache resultCache, ApplicationEventPublisher publisher) {
+        this.queryFactory = new DeadlineJPAQueryFactory(em, publisher);
+        this.countCache = countCache;
+        this.searchTemplates = searchTemplates;
+        this.queryExecutor = queryExecutor;
+        this.usernameIndex = usernameIndex;
+        this.resultCache = resultCache;
+        this.supportsWindowFunctions = em.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect()
+                .supportsWindowFunctions();
     }
 
     public List<MemberTeamDTO> search(MemberSearchCondition condition) {
-        return queryFactory.select(
-                        new QMemberTeamDTO(
-                                member.id.as("memberId"),
-                                member.username,
-                                member.age,
-                                team.id.as("teamId"),
-                                team.name.as("teamName")
-                        )
+        return resultCache.getList(condition, () -> searchTemplates.search(condition));
+    }
+
+    @Override
+    public Page <MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        return resultCache.getPage(condition, pageable, () -> {
+            List<MemberTeamDTO> content = searchTemplates.search(condition, pageable.getOffset(), pageable.getPageSize());
+            long total = searchTemplates.count(condition);
+            return new PageImpl<>(content, pageable, total);
+        });
+    }
+
+    @Override
+    public Page <MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return resultCache.getPage(condition, pageable, () -> {
+            // shape 별로 미리 컴파일된 JPQL 에 파라미터만 바인딩해서 실행 (MemberSearchTemplates 참고)
+            List<MemberTeamDTO> content = searchTemplates.search(condition, pageable.getOffset(), pageable.getPageSize());
+//            return new PageImpl<>(content, pageable, total);
+            return PageableExecutionUtils.getPage(content, pageable,
+                    () -> countCache.getOrLoad(condition, () -> searchTemplates.count(condition))); //spring jpa 가 제공해주는 최적화 함수 -> 페이지 카운트 최적화 로직
+        });
+    }
+
+    @Override
+    public Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable, PageStrategy strategy) {
+        // 전략과 상관없이 결과는 같으므로 같은 캐시 항목을 사용
+        return resultCache.getPage(condition, pageable, () -> searchPageWithStrategy(condition, pageable, strategy));
+    }
+
+    private Page<MemberTeamDTO> searchPageWithStrategy(MemberSearchCondition condition, Pageable pageable, PageStrategy strategy) {
+        if (strategy == PageStrategy.WINDOW_COUNT && supportsWindowFunctions) {
+            return searchPageWindowCount(condition, pageable);
+        }
+        if (strategy == PageStrategy.DEFERRED_JOIN) {
+            return searchPageDeferredJoin(condition, pageable);
+        }
+        if (strategy == PageStrategy.CONCURRENT_COUNT) {
+            return queryExecutor.pageWithConcurrentCount(pageable,
+                    () -> searchTemplates.search(condition, pageable.getOffset(), pageable.getPageSize()),
+                    () -> countCache.getOrLoad(condition, () -> searchTemplates.count(condition)));
+        }
+        List<MemberTeamDTO> content = searchTemplates.search(condition, pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.getOrLoad(condition, () -> searchTemplates.count(condition)));
+    }
+
+    private Page<MemberTeamDTO> searchPageDeferredJoin(MemberSearchCondition condition, Pageable pageable) {
+        // 1. id 만 조회 - team 조건 / 정렬이 없으면 조인도 하지 않는다
+        boolean joinTeam = StringUtils.hasText(condition.getTeamName())
+                || pageable.getSort().stream().anyMatch(order -> order.getProperty().startsWith("team"));
+        JPAQuery<Long> idQuery = queryFactory
+                .select(member.id)
+                .from(member);
+        if (joinTeam) {
+            idQuery.leftJoin(member.team, team);
+        }
+        List<Long> ids = idQuery
+                .where(
+                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
+                        teamNameEq(condition.getTeamName()),
+                        ageGOE(condition.getAgeGoe()),
+                        ageLOE(condition.getAgeLoe())
                 )
+                .orderBy(toOrderSpecifiers(pageable.getSort()).toArray(OrderSpecifier[]::new))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        // 2. 해당 페이지 id 의 row 만 조인해서 조회 후 1번 순서대로 정렬
+        List<MemberTeamDTO> content = new ArrayList<>();
+        if (!ids.isEmpty()) {
+            List<MemberTeamDTO> rows = queryFactory.select(
+                            new QMemberTeamDTO(
+                                    member.id.as("memberId"),
+                                    member.username,
+                                    member.age,
+                                    team.id.as("teamId"),
+                                    team.name.as("teamName")
+                            )
+                    )
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(member.id.in(ids))
+                    .fetch();
+            content = DeferredJoin.reorder(ids, rows, MemberTeamDTO::getMemberId);
+        }
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.getOrLoad(condition, () -> searchTemplates.count(condition)));
+    }
+
+    /**
+     * count(*) over() 로 전체 건수를 content 각 row 에 같이 실어 보내서 쿼리 한 번으로 페이지를 만든다.
+     * 단, offset 이 전체 건수를 넘어가 row 가 하나도 없으면 total 을 알 수 없으므로 그때만 count 쿼리를 추가로 실행한다.
+     */
+    private Page<MemberTeamDTO> searchPageWindowCount(MemberSearchCondition condition, Pageable pageable) {
+        NumberExpression<Long> totalOver = Expressions.numberTemplate(Long.class, "count(*) over()");
+        QMemberTeamDTO memberTeamDTO = new QMemberTeamDTO(
+                member.id.as("memberId"),
+                member.username,
+                member.age,
+                team.id.as("teamId"),
+                team.name.as("teamName")
+        );
+
+        List<Tuple> rows = queryFactory.select(memberTeamDTO, totalOver)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
                         teamNameEq(condition.getTeamName()),
                         ageGOE(condition.getAgeGoe()),
-                        ageLOE(condition.getAgeLoe() )
+                        ageLOE(condition.getAgeLoe())
                 )
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
                 .fetch();
 
+        List<MemberTeamDTO> content = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            content.add(row.get(memberTeamDTO));
+        }
 
+        if (!rows.isEmpty()) {
+            Long total = rows.get(0).get(totalOver);
+            return new PageImpl<>(content, pageable, total != null ? total : 0L);
+        }
+
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
+                        teamNameEq(condition.getTeamName()),
+                        ageGOE(condition.getAgeGoe()),
+                        ageLOE(condition.getAgeLoe())
+                );
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.getOrLoad(condition, countQuery::fetchOne));
     }
 
     @Override
-    public Page <MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDTO> result = queryFactory.select(
+    public CursorSlice<MemberTeamDTO> searchByCursor(MemberSearchCondition condition, String cursor, int size) {
+        // offset 을 쓰지 않고 PK 인덱스로 바로 다음 위치를 찾아가므로 페이지 깊이와 상관없이 비용이 일정하다
+        List<MemberTeamDTO> content = queryFactory.select(
                         new QMemberTeamDTO(
                                 member.id.as("memberId"),
                                 member.username,
@@ -70,23 +239,145 @@ public class MemberRepositoryImpl implements MemberCustomRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
+                        idGt(KeysetCursor.decode(cursor)),
                         usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
                         teamNameEq(condition.getTeamName()),
                         ageGOE(condition.getAgeGoe()),
                         ageLOE(condition.getAgeLoe())
                 )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
-        List<MemberTeamDTO> content = result.getResults();
-        long total = result.getTotal();
-        return new PageImpl<>(content, pageable, total);
+                .orderBy(member.id.asc())
+                .limit(size + 1) // 한 건 더 조회해서 다음 페이지 존재 여부를 판단
+                .fetch();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        String nextCursor = hasNext ? KeysetCursor.encode(content.get(size - 1).getMemberId()) : null;
+        return new CursorSlice<>(content, nextCursor, hasNext);
     }
 
     @Override
-    public Page <MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+    public List<MemberTeamDTO> searchParallel(MemberSearchCondition condition, Sort sort, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        Tuple bounds = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
+                        teamNameEq(condition.getTeamName()),
+                        ageGOE(condition.getAgeGoe()),
+                        ageLOE(condition.getAgeLoe())
+                )
+                .fetchOne();
+        Long minId = bounds != null ? bounds.get(0, Long.class) : null;
+        Long maxId = bounds != null ? bounds.get(1, Long.class) : null;
+        if (minId == null || maxId == null) {
+            return new ArrayList<>();
+        }
 
-        List<MemberTeamDTO> content = queryFactory.select(
+        // 범위 수는 id 개수보다 많을 수 없음
+        long span = maxId - minId + 1;
+        int ranges = (int) Math.min(parallelism, span);
+        long rangeSize = (span + ranges - 1) / ranges;
+
+        List<OrderSpecifier<?>> orders = toOrderSpecifiers(sort);
+        List<CompletableFuture<List<MemberTeamDTO>>> futures = new ArrayList<>(ranges);
+        for (long from = minId; from <= maxId; from += rangeSize) {
+            long lo = from;
+            long hi = Math.min(from + rangeSize - 1, maxId);
+            futures.add(queryExecutor.submitReadOnly(() -> searchRange(condition, lo, hi, orders)));
+        }
+
+        List<List<MemberTeamDTO>> runs = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<List<MemberTeamDTO>> future : futures) {
+                runs.add(future.join());
+            }
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        if (sort.isUnsorted()) {
+            // 범위가 id 순이므로 이어 붙이기만 하면 된다
+            List<MemberTeamDTO> result = new ArrayList<>();
+            runs.forEach(result::addAll);
+            return result;
+        }
+        return mergeSortedRuns(runs, toComparator(sort));
+    }
+
+    @Override
+    public MemberFacetDTO searchFacets(MemberSearchCondition condition, List<Integer> ageBounds) {
+        int[] bounds = ageBounds.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+
+        // 나이 구간 CASE 식은 select / group by 에 각각 바인딩 파라미터로 들어가 MySQL(ONLY_FULL_GROUP_BY)에서
+        // 같은 식으로 인정되지 않으므로, (팀, 나이) 단위로 묶어서 가져온 뒤 구간은 애플리케이션에서 합산한다
+        // (나이 종류는 많지 않아서 row 수는 팀 수 x 나이 수 이하)
+        List<Tuple> rows = queryFactory
+                .select(team.name, member.age, member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
+                        teamNameEq(condition.getTeamName()),
+                        ageGOE(condition.getAgeGoe()),
+                        ageLOE(condition.getAgeLoe())
+                )
+                .groupBy(team.name, member.age)
+                .fetch();
+
+        long total = 0;
+        Map<String, Long> teamCounts = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        long[] bucketCounts = new long[bounds.length + 1];
+        for (Tuple row : rows) {
+            long count = row.get(member.count());
+            Integer age = row.get(member.age);
+            total += count;
+            teamCounts.merge(row.get(team.name), count, Long::sum);
+            bucketCounts[ageBucket(bounds, age != null ? age : 0)] += count;
+        }
+
+        List<FacetCount> teams = new ArrayList<>(teamCounts.size());
+        teamCounts.forEach((name, count) -> teams.add(new FacetCount(name, count)));
+        List<FacetCount> ageBuckets = new ArrayList<>(bucketCounts.length);
+        for (int i = 0; i < bucketCounts.length; i++) {
+            ageBuckets.add(new FacetCount(ageBucketLabel(bounds, i), bucketCounts[i]));
+        }
+        return new MemberFacetDTO(total, teams, ageBuckets);
+    }
+
+    /**
+     * age 보다 작거나 같은 경계의 수 = 구간 index
+     */
+    private static int ageBucket(int[] bounds, int age) {
+        int index = Arrays.binarySearch(bounds, age);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static String ageBucketLabel(int[] bounds, int bucket) {
+        if (bounds.length == 0) {
+            return "all";
+        }
+        if (bucket == 0) {
+            return "~" + (bounds[0] - 1);
+        }
+        if (bucket == bounds.length) {
+            return bounds[bounds.length - 1] + "~";
+        }
+        return bounds[bucket - 1] + "~" + (bounds[bucket] - 1);
+    }
+
+    private List<MemberTeamDTO> searchRange(MemberSearchCondition condition, long lo, long hi,
+                                            List<OrderSpecifier<?>> orders) {
+        return queryFactory.select(
                         new QMemberTeamDTO(
                                 member.id.as("memberId"),
                                 member.username,
@@ -98,33 +389,118 @@ public class MemberRepositoryImpl implements MemberCustomRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
+                        member.id.between(lo, hi),
                         usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
                         teamNameEq(condition.getTeamName()),
                         ageGOE(condition.getAgeGoe()),
                         ageLOE(condition.getAgeLoe())
                 )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .orderBy(orders.toArray(OrderSpecifier[]::new))
                 .fetch();
+    }
 
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGOE(condition.getAgeGoe()),
-                        ageLOE(condition.getAgeLoe())
-                );
-//        return new PageImpl<>(content, pageable, total);
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne); //spring jpa 가 제공해주는 최적화 함수 -> 페이지 카운트 최적화 로직
+    /**
+     * 각 범위 결과는 DB 에서 이미 정렬되어 있으므로 k-way merge 로 합친다
+     * 문자열 비교는 DB collation 이 아니라 String.compareTo 기준
+     */
+    private static <T> List<T> mergeSortedRuns(List<List<T>> runs, Comparator<T> comparator) {
+        record Head<T>(T value, int run, int index) {
+        }
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, runs.size()),
+                (a, b) -> comparator.compare(a.value(), b.value()));
+        int total = 0;
+        for (int i = 0; i < runs.size(); i++) {
+            List<T> run = runs.get(i);
+            total += run.size();
+            if (!run.isEmpty()) {
+                heads.add(new Head<>(run.get(0), i, 0));
+            }
+        }
+
+        List<T> result = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            result.add(head.value());
+            List<T> run = runs.get(head.run());
+            int next = head.index() + 1;
+            if (next < run.size()) {
+                heads.add(new Head<>(run.get(next), head.run(), next));
+            }
+        }
+        return result;
+    }
+
+    private static List<OrderSpecifier<?>> toOrderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> path = sortPath(order.getProperty());
+            orders.add(order.isAscending() ? path.asc() : path.desc());
+        }
+        orders.add(member.id.asc()); // 동일 값 정렬 순서 고정
+        return orders;
+    }
+
+    private static Comparator<MemberTeamDTO> toComparator(Sort sort) {
+        Comparator<MemberTeamDTO> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<MemberTeamDTO> next = keyComparator(order.getProperty());
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<MemberTeamDTO> byId = Comparator.comparing(MemberTeamDTO::getMemberId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    /**
+     * 범위별 결과는 DB 정렬 순서이므로 병합도 같은 기준이어야 한다
+     * - MySQL 은 오름차순에서 null 이 먼저, 내림차순에서 나중에 온다
+     * - 문자열 컬럼은 utf8mb4_0900_ai_ci (대소문자 / 악센트 무시) 이므로 String.compareTo 대신 PRIMARY 강도의 Collator 로 비교
+     *   (같다고 보는 값끼리는 SQL 과 마찬가지로 member.id 순)
+     */
+    private static Comparator<MemberTeamDTO> keyComparator(String property) {
+        return switch (property) {
+            case "memberId", "id" -> Comparator.comparing(MemberTeamDTO::getMemberId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "username" -> Comparator.comparing(MemberTeamDTO::getUsername, Comparator.nullsFirst(columnCollator()));
+            case "age" -> Comparator.comparing(MemberTeamDTO::getAge, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "teamId" -> Comparator.comparing(MemberTeamDTO::getTeamId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "teamName" -> Comparator.comparing(MemberTeamDTO::getTeamName, Comparator.nullsFirst(columnCollator()));
+            default -> throw new IllegalArgumentException("unsupported sort property: " + property);
+        };
+    }
+
+    private static Collator columnCollator() {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        return collator;
+    }
+
+    private static ComparableExpressionBase<?> sortPath(String property) {
+        return switch (property) {
+            case "memberId", "id" -> member.id;
+            case "username" -> member.username;
+            case "age" -> member.age;
+            case "teamId" -> team.id;
+            case "teamName" -> team.name;
+            default -> throw new IllegalArgumentException("unsupported sort property: " + property);
+        };
+    }
+
+
+    private BooleanExpression idGt(Long lastId) {
+        return lastId != null ? member.id.gt(lastId) : null;
     }
 
     private BooleanExpression usernameEq(String username) {
         return StringUtils.hasText(username) ? member.username.eq(username) : null;
     }
 
+    private BooleanExpression usernameMatches(MemberSearchCondition condition) {
+        return usernameIndex.predicate(condition);
+    }
+
     private BooleanExpression teamNameEq(String teamName) {
         return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
     }
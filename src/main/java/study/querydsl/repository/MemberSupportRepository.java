@@ -0,0 +1,116 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.FetchPlan;
+import study.querydsl.repository.support.MemberUsernameIndex;
+import study.querydsl.repository.support.QueryDSL4Repository;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * QueryDSL4Repository 를 상속해서 사용하는 엔티티 조회용 리포지토리
+ * 연관관계 로딩 방식은 호출하는 쪽에서 FetchPlan 으로 지정한다.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MemberSupportRepository extends QueryDSL4Repository {
+
+    private final MemberUsernameIndex usernameIndex;
+
+    public MemberSupportRepository(MemberUsernameIndex usernameIndex) {
+        super(Member.class);
+        this.usernameIndex = usernameIndex;
+    }
+
+    public List<Member> search(MemberSearchCondition condition, FetchPlan fetchPlan) {
+        return fetch(
+                selectFrom(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername()),
+                                usernameMatches(condition),
+                                teamNameEq(condition.getTeamName()),
+                                ageGOE(condition.getAgeGoe()),
+                                ageLOE(condition.getAgeLoe())
+                        ),
+                fetchPlan
+        );
+    }
+
+    public Page<Member> searchPage(MemberSearchCondition condition, Pageable pageable, FetchPlan fetchPlan) {
+        return applyPagination(pageable, fetchPlan, query -> query
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
+                        teamNameEq(condition.getTeamName()),
+                        ageGOE(condition.getAgeGoe()),
+                        ageLOE(condition.getAgeLoe())
+                ));
+    }
+
+    /**
+     * deferred join 페이징 - 정렬 / 페이징은 member.id 만 조회하는 쿼리에서 처리하고 해당 페이지의 회원만 team 을 fetch join 해서 조회
+     */
+    public Page<Member> searchPageDeferred(MemberSearchCondition condition, Pageable pageable) {
+        return applyDeferredJoinPagination(pageable,
+                query -> query
+                        .select(member.id)
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername()),
+                                usernameMatches(condition),
+                                teamNameEq(condition.getTeamName()),
+                                ageGOE(condition.getAgeGoe()),
+                                ageLOE(condition.getAgeLoe())
+                        ),
+                (query, ids) -> query
+                        .selectFrom(member)
+                        .leftJoin(member.team, team).fetchJoin()
+                        .where(member.id.in(ids)),
+                Member::getId,
+                query -> query
+                        .select(member.count())
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(
+                                usernameEq(condition.getUsername()),
+                                usernameMatches(condition),
+                                teamNameEq(condition.getTeamName()),
+                                ageGOE(condition.getAgeGoe()),
+                                ageLOE(condition.getAgeLoe())
+                        ));
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression usernameMatches(MemberSearchCondition condition) {
+        return usernameIndex.predicate(condition);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGOE(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLOE(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
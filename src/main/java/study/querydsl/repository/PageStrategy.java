@@ -0,0 +1,30 @@
+package study.querydsl.repository;
+
+/**
+ * searchPageComplex 에서 content 와 total 을 어떻게 가져올지 결정하는 전략
+ */
+public enum PageStrategy {
+
+    /**
+     * content 쿼리 + 별도 count 쿼리 (기본)
+     */
+    TWO_QUERY,
+
+    /**
+     * count(*) over() 윈도우 함수로 content 와 total 을 한 번의 쿼리로 조회
+     * 윈도우 함수를 지원하지 않는 dialect 에서는 TWO_QUERY 로 동작한다.
+     */
+    WINDOW_COUNT,
+
+    /**
+     * count 쿼리를 별도 스레드(별도 읽기 전용 트랜잭션 / 커넥션)에서 content 쿼리와 동시에 실행
+     * content 만으로 total 을 알 수 있으면 count 결과는 버린다.
+     */
+    CONCURRENT_COUNT,
+
+    /**
+     * 조건 / 정렬 / offset / limit 으로 member.id 만 먼저 조회하고, 해당 id 의 row 만 team 과 조인해서 조회
+     * 깊은 페이지에서 건너뛰는 row 까지 조인 / DTO 생성하지 않는다. (pageable 의 sort 적용, 기본은 memberId 순)
+     */
+    DEFERRED_JOIN
+}
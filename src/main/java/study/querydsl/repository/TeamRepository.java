@@ -0,0 +1,21 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    String TEAM_BY_NAME_REGION = "team-by-name";
+
+    // 팀 이름 조회는 쿼리 캐시(team-by-name region) 사용 - 이름은 유일하지 않으므로 같은 이름의 팀을 모두 돌려준다
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = TEAM_BY_NAME_REGION)
+    })
+    List<Team> findByName(String name);
+}
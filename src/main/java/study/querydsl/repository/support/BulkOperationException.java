@@ -0,0 +1,20 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+
+/**
+ * 청크 실행 도중 실패 - lastCompletedId 까지는 이미 커밋되어 있으므로
+ * BulkOptions.resumeAfter(lastCompletedId) 로 이어서 실행하면 된다.
+ */
+@Getter
+public class BulkOperationException extends RuntimeException {
+
+    private final Long lastCompletedId;
+    private final long affectedRows;
+
+    public BulkOperationException(String message, Long lastCompletedId, long affectedRows, Throwable cause) {
+        super(message, cause);
+        this.lastCompletedId = lastCompletedId;
+        this.affectedRows = affectedRows;
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * ChunkedBulkExecutor 실행 옵션
+ */
+@Getter
+public class BulkOptions {
+
+    private final int chunkSize;
+    private final Duration pause;
+    private Long startAfterId;
+    private Consumer<BulkProgress> progressListener = progress -> {
+    };
+
+    /**
+     * @param chunkSize 한 트랜잭션에서 처리할 id 범위 크기
+     * @param pause     청크 사이에 쉬는 시간 (락 해제 / 복제 지연 해소용)
+     */
+    public BulkOptions(int chunkSize, Duration pause) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.pause = pause != null ? pause : Duration.ZERO;
+    }
+
+    /**
+     * 실패 후 재시작 - BulkOperationException.getLastCompletedId() 이후부터 이어서 처리
+     */
+    public BulkOptions resumeAfter(Long lastCompletedId) {
+        this.startAfterId = lastCompletedId;
+        return this;
+    }
+
+    public BulkOptions onProgress(Consumer<BulkProgress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+}
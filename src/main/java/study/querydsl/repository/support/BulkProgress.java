@@ -0,0 +1,40 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * 청크 하나가 커밋될 때마다 전달되는 진행 상황
+ */
+@Getter
+@ToString
+public class BulkProgress {
+
+    private final int completedChunks;
+    private final long lastCompletedId;
+    private final long maxId;
+    private final long affectedRows;
+    private final Duration elapsed;
+
+    public BulkProgress(int completedChunks, long lastCompletedId, long maxId, long affectedRows, Duration elapsed) {
+        this.completedChunks = completedChunks;
+        this.lastCompletedId = lastCompletedId;
+        this.maxId = maxId;
+        this.affectedRows = affectedRows;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * 시작 이후 초당 처리 row 수
+     */
+    public double getRowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos > 0 ? affectedRows * 1_000_000_000.0 / nanos : 0;
+    }
+
+    public boolean isDone() {
+        return lastCompletedId >= maxId;
+    }
+}
@@ -0,0 +1,125 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * QueryDSL 벌크 update / delete 를 id 범위 청크로 나눠서 실행한다.
+ * 테이블 전체를 한 번에 update 하면 모든 row 락을 커밋까지 잡고 있게 되므로,
+ * 청크마다 별도 트랜잭션(REQUIRES_NEW)으로 커밋하고 잠깐 쉬었다가 다음 청크를 처리한다.
+ * 청크가 커밋될 때마다 애플리케이션 JPAQueryFactory(DeadlineJPAQueryFactory)가 EntityChangedEvent.bulk 를 발행한다.
+ *
+ * <pre>
+ * bulkExecutor.update(member, member.id, member.age.lt(28),
+ *         clause -> clause.set(member.age, member.age.add(1)),
+ *         new BulkOptions(1000, Duration.ofMillis(50)));
+ * </pre>
+ */
+@Slf4j
+@Component
+public class ChunkedBulkExecutor {
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate chunkTransaction;
+
+    public ChunkedBulkExecutor(JPAQueryFactory queryFactory,
+                               PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param assignments set 절 지정 (ex. clause -> clause.set(member.age, member.age.add(1)))
+     * @return 전체 반영 row 수
+     */
+    public long update(EntityPath<?> entity, NumberPath<Long> id, Predicate where,
+                       Consumer<JPAUpdateClause> assignments, BulkOptions options) {
+        return execute(entity, id, where, options, range -> {
+            JPAUpdateClause clause = queryFactory.update(entity).where(where, range);
+            assignments.accept(clause);
+            return clause.execute();
+        });
+    }
+
+    public long delete(EntityPath<?> entity, NumberPath<Long> id, Predicate where, BulkOptions options) {
+        return execute(entity, id, where, options,
+                range -> queryFactory.delete(entity).where(where, range).execute());
+    }
+
+    private long execute(EntityPath<?> entity, NumberPath<Long> id, Predicate where, BulkOptions options,
+                         Function<BooleanExpression, Long> chunkOperation) {
+        Long startAfterId = options.getStartAfterId();
+        NumberExpression<Long> minExpr = id.min();
+        NumberExpression<Long> maxExpr = id.max();
+        Tuple bounds = queryFactory
+                .select(minExpr, maxExpr)
+                .from(entity)
+                .where(where, startAfterId != null ? id.gt(startAfterId) : null)
+                .fetchOne();
+        Long minId = bounds != null ? bounds.get(minExpr) : null;
+        Long maxId = bounds != null ? bounds.get(maxExpr) : null;
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long startedAt = System.nanoTime();
+        long affected = 0;
+        int chunks = 0;
+        Long lastCompletedId = startAfterId;
+        long from = minId;
+        while (from <= maxId) {
+            long to = Math.min(maxId, from + options.getChunkSize() - 1);
+            BooleanExpression range = id.between(from, to);
+            Long rows;
+            try {
+                rows = chunkTransaction.execute(status -> chunkOperation.apply(range));
+            } catch (RuntimeException e) {
+                throw new BulkOperationException("Bulk operation on " + entity + " failed at ids " + from + ".." + to,
+                        lastCompletedId, affected, e);
+            }
+
+            affected += rows != null ? rows : 0;
+            chunks++;
+            lastCompletedId = to;
+
+            BulkProgress progress = new BulkProgress(chunks, to, maxId, affected,
+                    Duration.ofNanos(System.nanoTime() - startedAt));
+            log.debug("bulk progress {} {}", entity, progress);
+            options.getProgressListener().accept(progress);
+
+            from = to + 1;
+            if (from <= maxId) {
+                pause(options, lastCompletedId, affected);
+            }
+        }
+        return affected;
+    }
+
+    private void pause(BulkOptions options, Long lastCompletedId, long affected) {
+        if (options.getPause().isZero() || options.getPause().isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(options.getPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkOperationException("Bulk operation interrupted", lastCompletedId, affected, e);
+        }
+    }
+}
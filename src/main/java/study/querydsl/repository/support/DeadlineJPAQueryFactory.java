@@ -0,0 +1,109 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.listener.EntityChangedEvent;
+
+/**
+ * 애플리케이션에서 사용하는 JPAQueryFactory
+ * - 만드는 모든 쿼리에 현재 요청의 남은 시간(QueryDeadline)을 query timeout 으로 건다.
+ *   쿼리를 만든 시점이 아니라 실행 직전(createQuery)에 계산하므로, 미리 만들어 둔 count 쿼리도 남은 시간만큼만 실행된다.
+ * - update() / delete() 벌크 연산은 엔티티 이벤트를 거치지 않으므로, 실행되면 커밋 이후에 EntityChangedEvent.bulk 를 발행한다.
+ *   (캐시 / 인덱스 / 통계가 벌크 연산을 알 수 있도록)
+ */
+public class DeadlineJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher publisher; // null 이면 벌크 이벤트를 발행하지 않음
+
+    public DeadlineJPAQueryFactory(EntityManager entityManager) {
+        this(entityManager, null);
+    }
+
+    public DeadlineJPAQueryFactory(EntityManager entityManager, ApplicationEventPublisher publisher) {
+        super(entityManager);
+        this.entityManager = entityManager;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new DeadlineJPAQuery<Void>(entityManager);
+    }
+
+    @Override
+    public JPAUpdateClause update(EntityPath<?> path) {
+        return new JPAUpdateClause(entityManager, path) {
+            @Override
+            public long execute() {
+                long rows = super.execute();
+                bulkExecuted(path, rows);
+                return rows;
+            }
+        };
+    }
+
+    @Override
+    public JPADeleteClause delete(EntityPath<?> path) {
+        return new JPADeleteClause(entityManager, path) {
+            @Override
+            public long execute() {
+                long rows = super.execute();
+                bulkExecuted(path, rows);
+                return rows;
+            }
+        };
+    }
+
+    private void bulkExecuted(EntityPath<?> path, long rows) {
+        if (publisher == null || rows == 0) {
+            return;
+        }
+        EntityChangedEvent event = EntityChangedEvent.bulk(path.getType());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publisher.publishEvent(event);
+            return;
+        }
+        // 롤백되면 발행하지 않음
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publisher.publishEvent(event);
+            }
+        });
+    }
+
+    static class DeadlineJPAQuery<T> extends JPAQuery<T> {
+
+        DeadlineJPAQuery(EntityManager em) {
+            super(em);
+        }
+
+        DeadlineJPAQuery(EntityManager em, JPQLTemplates templates, QueryMetadata metadata) {
+            super(em, templates, metadata);
+        }
+
+        @Override
+        protected Query createQuery(QueryModifiers modifiers, boolean forCount) {
+            return QueryDeadline.apply(super.createQuery(modifiers, forCount));
+        }
+
+        @Override
+        public DeadlineJPAQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+            DeadlineJPAQuery<T> q = new DeadlineJPAQuery<>(entityManager, templates, getMetadata().clone());
+            q.clone(this);
+            return q;
+        }
+    }
+}
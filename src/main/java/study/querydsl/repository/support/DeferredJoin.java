@@ -0,0 +1,34 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * deferred join 페이징 보조
+ * 1. 조건 / 정렬 / offset / limit 으로 id 만 조회 (인덱스만으로 처리 가능)
+ * 2. 해당 id 의 row 만 조인해서 조회
+ * 2번 쿼리는 member.id in (...) 이라 순서가 보장되지 않으므로 1번의 id 순서대로 다시 정렬한다.
+ */
+public final class DeferredJoin {
+
+    private DeferredJoin() {
+    }
+
+    public static <T> List<T> reorder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>(rows.size() * 2);
+        for (T row : rows) {
+            byId.put(idOf.apply(row), row);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = byId.get(id);
+            if (row != null) { // 두 쿼리 사이에 삭제된 row
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+}
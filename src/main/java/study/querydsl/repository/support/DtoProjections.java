@@ -0,0 +1,212 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean / Projections.constructor 대체용 DTO 프로젝션
+ * QBean 은 row 마다 리플렉션으로 setter 를 호출하지만, 여기서는 DTO 타입 + 프로퍼티 조합별로
+ * LambdaMetafactory 로 생성자/setter 람다를 한 번만 만들어 캐시해두고 재사용한다.
+ * (@QueryProjection 을 붙일 수 없는 DTO 에 사용)
+ *
+ * <pre>
+ * queryFactory.select(DtoProjections.bean(MemberDTO.class, member.username, member.age))
+ * queryFactory.select(DtoProjections.bean(UserDTO.class, member.username.as("name"), member.age))
+ * </pre>
+ */
+public final class DtoProjections {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<BeanKey, Instantiator<?>> beanInstantiators = new ConcurrentHashMap<>();
+    private static final Map<ConstructorKey, Instantiator<?>> constructorInstantiators = new ConcurrentHashMap<>();
+
+    private DtoProjections() {
+    }
+
+    /**
+     * 기본 생성자 + setter 로 채우는 프로젝션 (Projections.bean 과 같은 규칙 - path 이름 또는 as() 별칭이 프로퍼티명)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FactoryExpression<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        List<Expression<?>> args = List.of(exprs);
+        BeanKey key = new BeanKey(type, args.stream().map(DtoProjections::propertyName).toList());
+        Instantiator<T> instantiator = (Instantiator<T>) beanInstantiators.computeIfAbsent(key, DtoProjections::beanInstantiator);
+        return new DtoExpression<>(type, args, instantiator);
+    }
+
+    /**
+     * 인자 타입이 일치하는 생성자로 만드는 프로젝션 (Projections.constructor 대체)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> FactoryExpression<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        List<Expression<?>> args = List.of(exprs);
+        ConstructorKey key = new ConstructorKey(type, args.stream().<Class<?>>map(Expression::getType).toList());
+        Instantiator<T> instantiator = (Instantiator<T>) constructorInstantiators.computeIfAbsent(key, DtoProjections::constructorInstantiator);
+        return new DtoExpression<>(type, args, instantiator);
+    }
+
+    private static String propertyName(Expression<?> expr) {
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+            return ((Path<?>) operation.getArg(1)).getMetadata().getName();
+        }
+        throw new IllegalArgumentException("Unsupported expression " + expr + " - use a path or as(alias)");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Instantiator<?> beanInstantiator(BeanKey key) {
+        Supplier<Object> constructor = noArgConstructor(key.type());
+        List<BiConsumer<Object, Object>> setters = key.properties().stream()
+                .map(property -> setter(key.type(), property))
+                .toList();
+        BiConsumer<Object, Object>[] setterArray = setters.toArray(new BiConsumer[0]);
+
+        return args -> {
+            Object bean = constructor.get();
+            for (int i = 0; i < setterArray.length; i++) {
+                if (args[i] != null) { // QBean 과 동일하게 null 은 세팅하지 않는다 (primitive 필드 보호)
+                    setterArray[i].accept(bean, args[i]);
+                }
+            }
+            return bean;
+        };
+    }
+
+    private static Instantiator<?> constructorInstantiator(ConstructorKey key) {
+        List<Class<?>> argTypes = key.argTypes();
+        Constructor<?> constructor = Arrays.stream(key.type().getConstructors())
+                .filter(c -> c.getParameterCount() == argTypes.size() && assignable(c.getParameterTypes(), argTypes))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No constructor of " + key.type().getName() + " matches " + argTypes));
+        MethodHandle handle;
+        try {
+            handle = LOOKUP.unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(constructor + " is not accessible", e);
+        }
+        // (Object[]) -> Object 형태로 맞춰두면 row 마다 리플렉션 없이 invokeExact 로 호출된다
+        MethodHandle spreader = handle
+                .asType(handle.type().generic())
+                .asSpreader(Object[].class, argTypes.size());
+        return args -> {
+            try {
+                return spreader.invokeExact(args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> noArgConstructor(Class<?> type) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a public no-arg constructor", e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create constructor accessor for " + type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Class<?> type, String property) {
+        String setterName = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        Method method = Arrays.stream(type.getMethods())
+                .filter(m -> m.getName().equals(setterName) && m.getParameterCount() == 1 && !Modifier.isStatic(m.getModifiers()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No setter " + setterName + " on " + type.getName()));
+        Class<?> propertyType = method.getParameterTypes()[0];
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, MethodType.methodType(propertyType).wrap().returnType()));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(setterName + " on " + type.getName() + " is not accessible", e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create setter accessor " + setterName + " for " + type.getName(), e);
+        }
+    }
+
+    private static boolean assignable(Class<?>[] parameterTypes, List<Class<?>> argTypes) {
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> parameterType = MethodType.methodType(parameterTypes[i]).wrap().returnType();
+            if (!parameterType.isAssignableFrom(argTypes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface Instantiator<T> {
+        T newInstance(Object[] args);
+    }
+
+    private record BeanKey(Class<?> type, List<String> properties) {
+    }
+
+    private record ConstructorKey(Class<?> type, List<Class<?>> argTypes) {
+    }
+
+    private static final class DtoExpression<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final Instantiator<T> instantiator;
+
+        private DtoExpression(Class<? extends T> type, List<Expression<?>> args, Instantiator<T> instantiator) {
+            super(type);
+            this.args = args;
+            this.instantiator = instantiator;
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        public T newInstance(Object... args) {
+            return instantiator.newInstance(args);
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+    }
+}
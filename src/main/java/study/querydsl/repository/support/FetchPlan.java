@@ -0,0 +1,86 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 쿼리마다 어떤 연관관계를 함께 로딩할지 선언하는 fetch plan
+ * fetchJoin() 을 직접 나열하지 않고 QueryDSL4Repository 가 엔티티 그래프 / 배치 페치 중에 골라서 적용한다.
+ *
+ * <pre>
+ * FetchPlan.graph(member.team)                 // member 조회 시 team 까지 한 번에
+ * FetchPlan.batch(100, member.team)            // 조회 후 team 을 100개씩 IN 쿼리로
+ * </pre>
+ */
+@Getter
+@ToString
+public class FetchPlan {
+
+    public enum Mode {
+        /**
+         * jakarta.persistence.fetchgraph 힌트 - 조인으로 함께 조회
+         */
+        ENTITY_GRAPH,
+        /**
+         * 조회하는 동안만 세션 batch fetch size 를 바꿔서 선언한 연관관계를 IN 쿼리로 묶어서 초기화 (페이징과 함께 사용 가능)
+         */
+        BATCH
+    }
+
+    private final Mode mode;
+    private final int batchSize;
+    private final List<String> attributePaths;
+
+    private FetchPlan(Mode mode, int batchSize, List<String> attributePaths) {
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.attributePaths = Collections.unmodifiableList(attributePaths);
+    }
+
+    public static FetchPlan graph(Path<?>... associations) {
+        return new FetchPlan(Mode.ENTITY_GRAPH, 0, toAttributePaths(associations));
+    }
+
+    public static FetchPlan batch(int batchSize, Path<?>... associations) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        if (associations.length == 0) {
+            throw new IllegalArgumentException("At least one association is required");
+        }
+        return new FetchPlan(Mode.BATCH, batchSize, toAttributePaths(associations));
+    }
+
+    /**
+     * 같은 연관관계를 BATCH 방식으로 바꾼 plan
+     */
+    public FetchPlan toBatch(int batchSize) {
+        return new FetchPlan(Mode.BATCH, batchSize, new ArrayList<>(attributePaths));
+    }
+
+    /**
+     * member.team.members -> "team.members" (루트 변수는 제외)
+     */
+    private static List<String> toAttributePaths(Path<?>... associations) {
+        List<String> paths = new ArrayList<>(associations.length);
+        for (Path<?> association : associations) {
+            List<String> names = new ArrayList<>();
+            PathMetadata metadata = association.getMetadata();
+            while (metadata.getParent() != null) {
+                names.add(0, metadata.getName());
+                metadata = metadata.getParent().getMetadata();
+            }
+            if (names.isEmpty()) {
+                throw new IllegalArgumentException("Association path expected but got root " + association);
+            }
+            paths.add(String.join(".", names));
+        }
+        return paths;
+    }
+}
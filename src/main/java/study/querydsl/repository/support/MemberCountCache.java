@@ -0,0 +1,86 @@
+package study.querydsl.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.listener.EntityChangedEvent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 count 쿼리 결과 캐시
+ * 같은 검색 조건으로 페이지를 넘길 때마다 동일한 count 쿼리가 반복 실행되는 것을 막는다.
+ * - key : 빈 문자열을 null 로 정리한 MemberSearchCondition
+ * - Member / Team 변경이 커밋되면 전부 무효화
+ */
+@Component
+public class MemberCountCache {
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<MemberSearchCondition, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public MemberCountCache(@Value("${querydsl.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${querydsl.count-cache.max-size:10000}") int maxSize) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+    }
+
+    public long getOrLoad(MemberSearchCondition condition, LongSupplier countLoader) {
+        if (!isCacheable()) {
+            return countLoader.getAsLong();
+        }
+        MemberSearchCondition key = condition.normalized();
+        long now = System.nanoTime();
+        Entry entry = cache.get(key);
+        if (entry != null && entry.expiresAt - now > 0) {
+            return entry.total;
+        }
+
+        long loadedGeneration = generation.get();
+        long total = countLoader.getAsLong();
+        if (cache.size() >= maxSize) {
+            cache.values().removeIf(e -> e.expiresAt - now <= 0);
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+        }
+        // 조회하는 사이에 무효화가 일어났다면 이전 상태의 값이므로 저장하지 않는다
+        if (loadedGeneration == generation.get()) {
+            cache.put(key, new Entry(total, now + ttlNanos));
+        }
+        return total;
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntityType() == Member.class || event.getEntityType() == Team.class) {
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 변경을 봐야 하므로 캐시를 거치지 않는다
+     */
+    private boolean isCacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private record Entry(long total, long expiresAt) {
+    }
+}
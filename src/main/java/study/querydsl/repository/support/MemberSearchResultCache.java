@@ -0,0 +1,169 @@
+package study.querydsl.repository.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.listener.EntityChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 결과 캐시
+ * - key : 빈 문자열을 null 로 정리한 검색 조건 + offset / size / sort
+ * - 항목마다 읽은 테이블(member, team)을 태그로 달아두고, 해당 엔티티 변경(벌크 포함)이 커밋되면 그 태그의 항목을 모두 제거
+ * - 결과 row 수로 추정한 메모리 크기(maxWeight) 기준 W-TinyLFU 제거, 적중률은 cache.* 메트릭으로 노출
+ * 쓰기 트랜잭션 안에서는 MemberCountCache 와 마찬가지로 캐시를 거치지 않는다.
+ * 저장 / 조회 때마다 row 를 복사하므로 호출자끼리 같은 DTO 인스턴스를 공유하지 않는다.
+ */
+@Component
+public class MemberSearchResultCache {
+
+    public static final String MEMBER = "member";
+    public static final String TEAM = "team";
+    private static final Set<String> MEMBER_TEAM = Set.of(MEMBER, TEAM);
+
+    private static final int ENTRY_OVERHEAD = 128;   // key + Page / List 객체
+    private static final int ROW_OVERHEAD = 96;      // MemberTeamDTO + Long / Integer 필드
+
+    private final Cache<Key, Entry> cache;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public MemberSearchResultCache(MeterRegistry meterRegistry,
+                                   @Value("${querydsl.result-cache.max-weight:64MB}") DataSize maxWeight,
+                                   @Value("${querydsl.result-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .expireAfterWrite(ttl) // 이벤트로 무효화되지 않는 변경(직접 SQL 등)에 대한 안전장치
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member.search.result");
+    }
+
+    public List<MemberTeamDTO> getList(MemberSearchCondition condition, Supplier<List<MemberTeamDTO>> loader) {
+        Entry entry = getOrLoad(new Key(condition.normalized(), -1, -1, null), MEMBER_TEAM, () -> {
+            List<MemberTeamDTO> content = copyOf(loader.get());
+            return new Entry(content, MEMBER_TEAM, weigh(content));
+        });
+        @SuppressWarnings("unchecked")
+        List<MemberTeamDTO> content = (List<MemberTeamDTO>) entry.value();
+        return copyOf(content);
+    }
+
+    public Page<MemberTeamDTO> getPage(MemberSearchCondition condition, Pageable pageable, Supplier<Page<MemberTeamDTO>> loader) {
+        Key key = new Key(condition.normalized(), pageable.getOffset(), pageable.getPageSize(), pageable.getSort().toString());
+        Entry entry = getOrLoad(key, MEMBER_TEAM, () -> {
+            Page<MemberTeamDTO> page = loader.get();
+            Page<MemberTeamDTO> cached = new PageImpl<>(copyOf(page.getContent()), pageable, page.getTotalElements());
+            return new Entry(cached, MEMBER_TEAM, weigh(page.getContent()));
+        });
+        @SuppressWarnings("unchecked")
+        Page<MemberTeamDTO> page = (Page<MemberTeamDTO>) entry.value();
+        return new PageImpl<>(copyOf(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntityType() == Member.class) {
+            invalidate(MEMBER);
+        } else if (event.getEntityType() == Team.class) {
+            invalidate(TEAM);
+        }
+    }
+
+    public void invalidate(String tag) {
+        generation(tag).incrementAndGet();
+        cache.asMap().values().removeIf(entry -> entry.tags().contains(tag));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private Entry getOrLoad(Key key, Set<String> tags, Supplier<Entry> loader) {
+        if (!isCacheable()) {
+            return loader.get();
+        }
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            return entry;
+        }
+
+        long[] loadedGenerations = generationsOf(tags);
+        entry = loader.get();
+        // 조회하는 사이에 태그가 무효화되었다면 이전 상태의 값이므로 저장하지 않는다
+        if (Arrays.equals(loadedGenerations, generationsOf(tags))) {
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    private long[] generationsOf(Set<String> tags) {
+        return tags.stream().sorted().mapToLong(tag -> generation(tag).get()).toArray();
+    }
+
+    private AtomicLong generation(String tag) {
+        return generations.computeIfAbsent(tag, key -> new AtomicLong());
+    }
+
+    /**
+     * MemberTeamDTO 는 setter 가 있는 가변 객체이므로 저장할 때와 돌려줄 때 모두 복사한다
+     * (한 호출자가 값을 바꿔도 캐시와 다른 호출자에게 보이지 않도록)
+     */
+    private static List<MemberTeamDTO> copyOf(List<MemberTeamDTO> rows) {
+        List<MemberTeamDTO> copies = new ArrayList<>(rows.size());
+        for (MemberTeamDTO row : rows) {
+            copies.add(new MemberTeamDTO(row.getMemberId(), row.getUsername(), row.getAge(), row.getTeamId(), row.getTeamName()));
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    private static int weigh(List<MemberTeamDTO> content) {
+        long weight = ENTRY_OVERHEAD;
+        for (MemberTeamDTO row : content) {
+            weight += ROW_OVERHEAD + length(row.getUsername()) * 2L + length(row.getTeamName()) * 2L;
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 변경을 봐야 하므로 캐시를 거치지 않는다
+     */
+    private boolean isCacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private record Key(MemberSearchCondition condition, long offset, int size, String sort) {
+    }
+
+    private record Entry(Object value, Set<String> tags, int weight) {
+    }
+}
@@ -0,0 +1,292 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 조건 조합(shape)별로 미리 만들어 둔 JPQL 템플릿
+ * username / teamName / ageGoe / ageLoe / username 접두어·부분 문자열 조건 존재 여부로 shape 이 나오고,
+ * shape 별로 QueryDSL 쿼리 -> JPQL 직렬화를 한 번만 수행한 뒤 이후 요청은 파라미터만 바인딩한다.
+ * JPQL 문자열이 항상 같으므로 하이버네이트 쿼리 플랜 캐시도 그대로 재사용된다.
+ * username 접두어·부분 문자열 조건은 MemberUsernameIndex 의 후보 id 로 바꿔서 batch-size 씩 member.id in (...) 으로 조회하고,
+ * 인덱스가 아직 적재되지 않았을 때만 like 로 조회한다.
+ */
+@Component
+public class MemberSearchTemplates {
+
+    private static final int USERNAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+    private static final int MEMBER_IDS = 1 << 4;
+    private static final int USERNAME_PREFIX = 1 << 5;
+    private static final int USERNAME_CONTAINS = 1 << 6;
+    private static final int SHAPES = 1 << 7;
+    private static final int USERNAME_FILTERS = USERNAME_PREFIX | USERNAME_CONTAINS;
+
+    private static final Param<String> usernameParam = new Param<>(String.class, "username");
+    private static final Param<String> teamNameParam = new Param<>(String.class, "teamName");
+    private static final Param<Integer> ageGoeParam = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> ageLoeParam = new Param<>(Integer.class, "ageLoe");
+    private static final Param<Collection> memberIdsParam = new Param<>(Collection.class, "memberIds");
+    private static final Param<String> usernamePrefixParam = new Param<>(String.class, "usernamePrefix");
+    private static final Param<String> usernameContainsParam = new Param<>(String.class, "usernameContains");
+
+    private static final QMemberTeamDTO memberTeamDTO = new QMemberTeamDTO(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName")
+    );
+
+    private final EntityManager em;
+    private final MemberUsernameIndex usernameIndex;
+    private final AtomicReferenceArray<CompiledQuery> contentQueries = new AtomicReferenceArray<>(SHAPES);
+    private final AtomicReferenceArray<CompiledQuery> countQueries = new AtomicReferenceArray<>(SHAPES);
+    private final Counter hits;
+    private final Counter misses;
+
+    public MemberSearchTemplates(EntityManager em, MemberUsernameIndex usernameIndex, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.usernameIndex = usernameIndex;
+        this.hits = Counter.builder("querydsl.search.template")
+                .tag("result", "hit")
+                .description("compiled member search template reused")
+                .register(meterRegistry);
+        this.misses = Counter.builder("querydsl.search.template")
+                .tag("result", "miss")
+                .description("member search template compiled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param limit 0 이하이면 limit 없이 전체 조회
+     */
+    public List<MemberTeamDTO> search(MemberSearchCondition condition, long offset, int limit) {
+        int shape = shapeOf(condition);
+        if ((shape & USERNAME_FILTERS) != 0) {
+            List<Long> memberIds = usernameIndex.findIds(condition);
+            if (memberIds != null) {
+                return searchCandidates(condition, candidateShape(shape), memberIds, offset, limit);
+            }
+        }
+        CompiledQuery compiled = compiled(contentQueries, shape, false);
+        return fetch(compiled.bind(em, condition, null), offset, limit);
+    }
+
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        return search(condition, 0, 0);
+    }
+
+    public long count(MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        if ((shape & USERNAME_FILTERS) != 0) {
+            List<Long> memberIds = usernameIndex.findIds(condition);
+            if (memberIds != null) {
+                // 후보 수를 그대로 쓰지 않고 DB 에서 센다 (이벤트 없이 지워진 row 가 후보에 남아 있을 수 있음)
+                CompiledQuery compiled = compiled(countQueries, candidateShape(shape), true);
+                long total = 0;
+                for (List<Long> batch : batches(memberIds)) {
+                    total += count(compiled, condition, batch);
+                }
+                return total;
+            }
+        }
+        return count(compiled(countQueries, shape, true), condition, null);
+    }
+
+    public double hitCount() {
+        return hits.count();
+    }
+
+    public double missCount() {
+        return misses.count();
+    }
+
+    /**
+     * 후보 id 를 batch-size 씩 id 순으로 DB 에서 확인하면서 페이지를 채운다
+     * 이벤트 없이 지워진 row 가 후보에 남아 있을 수 있으므로 offset 은 후보 수가 아니라 DB 에서 센 row 수로 건너뛴다.
+     */
+    private List<MemberTeamDTO> searchCandidates(MemberSearchCondition condition, int shape, List<Long> memberIds,
+                                                 long offset, int limit) {
+        List<MemberTeamDTO> content = new ArrayList<>();
+        if (memberIds.size() <= offset) {
+            return content; // 결과는 후보의 부분집합이므로 후보보다 많을 수 없음
+        }
+        CompiledQuery contentQuery = compiled(contentQueries, shape, false);
+        long skip = offset;
+        for (List<Long> batch : batches(memberIds)) {
+            if (skip > 0) {
+                long matched = count(compiled(countQueries, shape, true), condition, batch);
+                if (matched <= skip) {
+                    skip -= matched;
+                    continue;
+                }
+            }
+            content.addAll(fetch(contentQuery.bind(em, condition, batch), skip, limit > 0 ? limit - content.size() : 0));
+            skip = 0;
+            if (limit > 0 && content.size() >= limit) {
+                break;
+            }
+        }
+        return content;
+    }
+
+    private List<List<Long>> batches(List<Long> memberIds) {
+        int batchSize = usernameIndex.getBatchSize();
+        List<List<Long>> batches = new ArrayList<>((memberIds.size() + batchSize - 1) / batchSize);
+        for (int from = 0; from < memberIds.size(); from += batchSize) {
+            batches.add(List.copyOf(memberIds.subList(from, Math.min(from + batchSize, memberIds.size()))));
+        }
+        return batches;
+    }
+
+    private static List<MemberTeamDTO> fetch(Query query, long offset, int limit) {
+        if (offset > 0) {
+            query.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        List<?> rows = query.getResultList();
+        List<MemberTeamDTO> content = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            content.add(memberTeamDTO.newInstance((Object[]) row));
+        }
+        return content;
+    }
+
+    private long count(CompiledQuery compiled, MemberSearchCondition condition, Collection<Long> memberIds) {
+        Object total = compiled.bind(em, condition, memberIds).getSingleResult();
+        return total != null ? ((Number) total).longValue() : 0L;
+    }
+
+    /**
+     * 인덱스가 준비되어 있으면 접두어·부분 문자열 조건은 항상 후보 id (member.id in (...)) 로 바꾼다
+     */
+    private static int candidateShape(int shape) {
+        return (shape & ~USERNAME_FILTERS) | MEMBER_IDS;
+    }
+
+    private CompiledQuery compiled(AtomicReferenceArray<CompiledQuery> queries, int shape, boolean count) {
+        CompiledQuery compiled = queries.get(shape);
+        if (compiled != null) {
+            hits.increment();
+            return compiled;
+        }
+        misses.increment();
+        compiled = compile(shape, count);
+        // 동시에 컴파일되더라도 결과는 같으므로 먼저 들어간 것을 사용
+        return queries.compareAndSet(shape, null, compiled) ? compiled : queries.get(shape);
+    }
+
+    private CompiledQuery compile(int shape, boolean count) {
+        // EntityManager 없이 메타데이터만 만드는 detached 쿼리
+        Expression<?> projection = count ? member.count() : memberTeamDTO;
+        JPAQuery<?> query = new JPAQuery<Void>()
+                .select(projection)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        (shape & USERNAME) != 0 ? member.username.eq(usernameParam) : null,
+                        (shape & TEAM_NAME) != 0 ? team.name.eq(teamNameParam) : null,
+                        (shape & AGE_GOE) != 0 ? ageGoe() : null,
+                        (shape & AGE_LOE) != 0 ? ageLoe() : null,
+                        (shape & MEMBER_IDS) != 0 ? Expressions.booleanOperation(Ops.IN, member.id, memberIdsParam) : null,
+                        (shape & USERNAME_PREFIX) != 0 ? member.username.like(usernamePrefixParam) : null,
+                        (shape & USERNAME_CONTAINS) != 0 ? member.username.like(usernameContainsParam) : null
+                );
+        if (!count && (shape & MEMBER_IDS) != 0) {
+            query.orderBy(member.id.asc()); // 후보 검색 결과는 id 순으로 페이징
+        }
+
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new CompiledQuery(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    private static BooleanExpression ageGoe() {
+        return member.age.goe(ageGoeParam);
+    }
+
+    private static BooleanExpression ageLoe() {
+        return member.age.loe(ageLoeParam);
+    }
+
+    private static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (StringUtils.hasText(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if (StringUtils.hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        if (StringUtils.hasText(condition.getUsernameStartsWith())) {
+            shape |= USERNAME_PREFIX;
+        }
+        if (StringUtils.hasText(condition.getUsernameContains())) {
+            shape |= USERNAME_CONTAINS;
+        }
+        return shape;
+    }
+
+    private static String likePattern(String value, boolean contains) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        String escaped = value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return (contains ? "%" : "") + escaped + "%";
+    }
+
+    private record CompiledQuery(String jpql, List<Object> constants) {
+
+        Query bind(EntityManager em, MemberSearchCondition condition, Collection<Long> memberIds) {
+            Map<ParamExpression<?>, Object> params = new HashMap<>();
+            params.put(usernameParam, condition.getUsername());
+            params.put(teamNameParam, condition.getTeamName());
+            params.put(ageGoeParam, condition.getAgeGoe());
+            params.put(ageLoeParam, condition.getAgeLoe());
+            params.put(memberIdsParam, memberIds);
+            params.put(usernamePrefixParam, likePattern(condition.getUsernameStartsWith(), false));
+            params.put(usernameContainsParam, likePattern(condition.getUsernameContains(), true));
+
+            Query query = em.createQuery(jpql);
+            JPAUtil.setConstants(query, constants, params);
+            return QueryDeadline.apply(query);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.listener.EntityChangedEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * username 접두어 / 부분 문자열 검색용 메모리 인덱스
+ * - 접두어 : 정렬된 username -> id 목록 (TreeMap 범위 조회)
+ * - 부분 문자열 : 3-gram -> id 역색인, 3글자 미만은 전체 username 순회
+ * 결과는 후보 id 목록이고 실제 row 는 member.id in (...) 으로 다시 조회한다.
+ * MySQL 기본 collation 처럼 대소문자를 구분하지 않도록 소문자로 색인한다.
+ * 애플리케이션 시작 시 한 번 적재하고 이후에는 커밋된 Member 변경 이벤트로 갱신한다.
+ * 적재 중에 들어온 이벤트는 모아 두었다가 스냅샷을 반영한 뒤 다시 적용한다 (스냅샷 조회와 겹친 변경이 유실되지 않도록).
+ */
+@Slf4j
+@Component
+public class MemberUsernameIndex {
+
+    private static final int GRAM = 3;
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+    private final int batchSize;
+    private final QueryExecutor queryExecutor;
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> usernames = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> byUsername = new TreeMap<>();
+    private final Map<String, Set<Long>> byGram = new HashMap<>();
+    private List<EntityChangedEvent> eventsDuringLoad; // 적재 중이 아니면 null, writeLock 으로 보호
+    private volatile boolean ready;
+
+    public MemberUsernameIndex(JPAQueryFactory queryFactory,
+                               PlatformTransactionManager transactionManager,
+                               QueryExecutor queryExecutor,
+                               @Value("${querydsl.username-index.batch-size:1000}") int batchSize) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.queryExecutor = queryExecutor;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        lock.writeLock().lock();
+        try {
+            eventsDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, String> loaded = new HashMap<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<Tuple> rows = queryFactory.select(member.id, member.username).from(member).stream()) {
+                    rows.forEach(row -> loaded.put(row.get(member.id), row.get(member.username)));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                eventsDuringLoad = null; // 기존 인덱스는 이벤트로 계속 갱신되고 있었으므로 그대로 사용
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            usernames.clear();
+            byUsername.clear();
+            byGram.clear();
+            loaded.forEach(this::add);
+            // 스냅샷 조회와 겹쳐서 커밋된 변경은 스냅샷에 있을 수도 없을 수도 있으므로 순서대로 다시 적용 (같은 이벤트를 다시 적용해도 결과는 같다)
+            eventsDuringLoad.forEach(this::apply);
+            eventsDuringLoad = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("member username index loaded: {} members", loaded.size());
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getEntityType() != Member.class) {
+            return;
+        }
+        if (event.isBulk()) {
+            // 어떤 row 가 바뀌었는지 알 수 없으므로 다시 적재 (연달아 와도 대기 중인 적재는 하나만)
+            if (reloadPending.compareAndSet(false, true)) {
+                queryExecutor.runInBackground(() -> {
+                    reloadPending.set(false);
+                    load();
+                });
+            }
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (eventsDuringLoad != null) {
+                eventsDuringLoad.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 검색 조건의 usernameStartsWith / usernameContains 에 해당하는 후보 id (오름차순)
+     * @return 두 조건이 모두 없거나 인덱스를 쓸 수 없으면 null
+     */
+    public List<Long> findIds(MemberSearchCondition condition) {
+        String prefix = condition.getUsernameStartsWith();
+        String fragment = condition.getUsernameContains();
+        if (!ready || (!StringUtils.hasText(prefix) && !StringUtils.hasText(fragment))) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = null;
+            if (StringUtils.hasText(prefix)) {
+                ids = startsWith(normalize(prefix));
+            }
+            if (StringUtils.hasText(fragment)) {
+                Set<Long> matched = contains(normalize(fragment));
+                if (ids == null) {
+                    ids = matched;
+                } else {
+                    ids.retainAll(matched);
+                }
+            }
+            List<Long> sorted = new ArrayList<>(ids);
+            sorted.sort(null);
+            return sorted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 동적 쿼리용 조건
+     * 인덱스가 준비되어 있으면 후보 수와 관계없이 member.id in (...), 아직 적재 전이면 like 로 대체한다.
+     */
+    public BooleanExpression predicate(MemberSearchCondition condition) {
+        List<Long> ids = findIds(condition);
+        if (ids != null) {
+            return member.id.in(ids);
+        }
+        BooleanExpression startsWith = StringUtils.hasText(condition.getUsernameStartsWith())
+                ? member.username.startsWith(condition.getUsernameStartsWith()) : null;
+        BooleanExpression contains = StringUtils.hasText(condition.getUsernameContains())
+                ? member.username.contains(condition.getUsernameContains()) : null;
+        if (startsWith == null) {
+            return contains;
+        }
+        return contains == null ? startsWith : startsWith.and(contains);
+    }
+
+    /**
+     * 검색 템플릿이 한 번의 member.id in (...) 으로 확인하는 후보 수
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    private Set<Long> startsWith(String prefix) {
+        Set<Long> ids = new HashSet<>();
+        for (Set<Long> matched : byUsername.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            ids.addAll(matched);
+        }
+        return ids;
+    }
+
+    private Set<Long> contains(String fragment) {
+        Set<Long> ids = new HashSet<>();
+        if (fragment.length() < GRAM) {
+            usernames.forEach((id, username) -> {
+                if (username.contains(fragment)) {
+                    ids.add(id);
+                }
+            });
+            return ids;
+        }
+
+        // 가장 작은 gram 목록부터 후보로 잡고 실제 포함 여부로 확인
+        Set<Long> smallest = null;
+        for (String gram : grams(fragment)) {
+            Set<Long> posting = byGram.get(gram);
+            if (posting == null) {
+                return ids;
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        for (Long id : smallest) {
+            if (usernames.get(id).contains(fragment)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private void apply(EntityChangedEvent event) {
+        Long id = (Long) event.getId();
+        remove(id);
+        if (event.getChangeType() != EntityChangedEvent.ChangeType.DELETE) {
+            add(id, ((Member) event.getEntity()).getUsername());
+        }
+    }
+
+    private void add(Long id, String username) {
+        if (username == null) {
+            return;
+        }
+        String normalized = normalize(username);
+        usernames.put(id, normalized);
+        byUsername.computeIfAbsent(normalized, key -> new HashSet<>()).add(id);
+        for (String gram : grams(normalized)) {
+            byGram.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(Long id) {
+        String normalized = usernames.remove(id);
+        if (normalized == null) {
+            return;
+        }
+        removePosting(byUsername, normalized, id);
+        for (String gram : grams(normalized)) {
+            removePosting(byGram, gram, id);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long id) {
+        Set<Long> ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static Collection<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -6,8 +6,18 @@ import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Subgraph;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
@@ -18,7 +28,10 @@ import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 
@@ -29,14 +42,19 @@ public abstract class QueryDSL4Repository {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private int paginationBatchSize = 100;
+    private QueryExecutor queryExecutor;
 
-    public Querydsl4RepositorySupport(Class<?> domainClass) {
+    public QueryDSL4Repository(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
     }
 
+    /**
+     * 벌크 update / delete 후 변경 이벤트를 발행하도록 publisher 도 같이 받아서 query factory 를 만든다
+     */
     @Autowired
-    public void setEntityManager(EntityManager entityManager) {
+    public void setEntityManager(EntityManager entityManager, ApplicationEventPublisher publisher) {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         JpaEntityInformation entityInformation =
                 JpaEntityInformationSupport.getEntityInformation(domainClass, entityManager);
@@ -45,7 +63,12 @@ public abstract class QueryDSL4Repository {
         this.entityManager = entityManager;
         this.querydsl = new Querydsl(entityManager, new
                 PathBuilder<>(path.getType(), path.getMetadata()));
-        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.queryFactory = new DeadlineJPAQueryFactory(entityManager, publisher);
+    }
+
+    @Autowired
+    public void setQueryExecutor(QueryExecutor queryExecutor) {
+        this.queryExecutor = queryExecutor;
     }
 
     @PostConstruct
@@ -93,5 +116,157 @@ public abstract class QueryDSL4Repository {
         return PageableExecutionUtils.getPage(content, pageable,
                 countResult::fetchCount);
     }
-}
 
+    /**
+     * deferred join 페이징 - 정렬 / offset / limit 은 id 만 조회하는 쿼리에 적용하고,
+     * 실제 row(조인 포함)는 해당 페이지의 id 만 다시 조회한다. 깊은 페이지에서 건너뛰는 row 를 조인하지 않는다.
+     * @param idQuery    조건만 적용한 id 조회 쿼리 (select member.id ...)
+     * @param contentQuery 페이지의 id 목록으로 row 를 조회하는 쿼리
+     * @param idOf       content row 의 id (idQuery 순서로 다시 정렬할 때 사용)
+     */
+    protected <T> Page<T> applyDeferredJoinPagination(Pageable pageable,
+                                                      Function<JPAQueryFactory, JPAQuery<Long>> idQuery,
+                                                      BiFunction<JPAQueryFactory, List<Long>, JPAQuery<T>> contentQuery,
+                                                      Function<T, Long> idOf,
+                                                      Function<JPAQueryFactory, JPAQuery> countQuery) {
+        List<Long> ids = getQuerydsl().applyPagination(pageable, idQuery.apply(getQueryFactory())).fetch();
+        List<T> content = ids.isEmpty()
+                ? new ArrayList<>()
+                : DeferredJoin.reorder(ids, contentQuery.apply(getQueryFactory(), ids).fetch(), idOf);
+        JPAQuery countResult = countQuery.apply(getQueryFactory());
+        return PageableExecutionUtils.getPage(content, pageable,
+                countResult::fetchCount);
+    }
+
+    /**
+     * content 쿼리와 count 쿼리를 동시에 실행 (count 는 별도 스레드의 읽기 전용 트랜잭션에서 실행)
+     */
+    protected <T> Page<T> applyPaginationConcurrently(Pageable pageable,
+                                                      Function<JPAQueryFactory, JPAQuery> contentQuery,
+                                                      Function<JPAQueryFactory, JPAQuery> countQuery) {
+        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
+        JPAQuery countResult = countQuery.apply(getQueryFactory());
+        return queryExecutor.pageWithConcurrentCount(pageable,
+                () -> getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch(),
+                countResult::fetchCount);
+    }
+
+    /**
+     * 페이징 + 컬렉션 fetch plan 조합에서 ENTITY_GRAPH 대신 사용할 batch size
+     */
+    protected void setPaginationBatchSize(int paginationBatchSize) {
+        this.paginationBatchSize = paginationBatchSize;
+    }
+
+    protected <T> Page<T> applyPagination(Pageable pageable, FetchPlan fetchPlan,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
+        // 힌트가 count 쿼리에 섞이지 않도록 content 쿼리는 복사본에 적용
+        JPAQuery<T> jpaContentQuery = getQuerydsl().applyPagination(pageable, jpaQuery.clone());
+        List<T> content = fetch(jpaContentQuery, planForPagination(pageable, fetchPlan));
+        return PageableExecutionUtils.getPage(content, pageable,
+                jpaQuery::fetchCount);
+    }
+
+    /**
+     * fetch plan 을 적용해서 조회한다. 연관관계 로딩 전략은 여기서 결정한다.
+     * - ENTITY_GRAPH : fetchgraph 힌트로 한 번에 조인 조회
+     * - BATCH        : 조회하는 동안만 세션 batch fetch size 를 바꾸고, 선언한 연관관계만 IN 쿼리로 묶어서 초기화한 뒤 원래 값으로 되돌린다
+     */
+    protected <T> List<T> fetch(JPAQuery<T> query, FetchPlan fetchPlan) {
+        if (fetchPlan == null || fetchPlan.getMode() != FetchPlan.Mode.BATCH) {
+            return applyFetchPlan(query, fetchPlan).fetch();
+        }
+        Session session = getEntityManager().unwrap(Session.class);
+        int previousBatchSize = session.getFetchBatchSize();
+        session.setFetchBatchSize(fetchPlan.getBatchSize());
+        try {
+            List<T> result = query.fetch();
+            for (String attributePath : fetchPlan.getAttributePaths()) {
+                initialize(result, attributePath.split("\\."));
+            }
+            return result;
+        } finally {
+            session.setFetchBatchSize(previousBatchSize);
+        }
+    }
+
+    /**
+     * ENTITY_GRAPH fetch plan 을 fetchgraph 힌트로 쿼리에 적용한다.
+     * BATCH 는 조회 시점에 처리해야 하므로 fetch(query, fetchPlan) 을 사용한다.
+     */
+    protected <T> JPAQuery<T> applyFetchPlan(JPAQuery<T> query, FetchPlan fetchPlan) {
+        if (fetchPlan == null || fetchPlan.getAttributePaths().isEmpty()) {
+            return query;
+        }
+        Assert.isTrue(fetchPlan.getMode() == FetchPlan.Mode.ENTITY_GRAPH, "BATCH fetch plan must be applied with fetch(query, fetchPlan)");
+        return query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, createEntityGraph(fetchPlan));
+    }
+
+    /**
+     * 결과 엔티티들의 attributePath 연관관계를 순서대로 초기화
+     * 첫 프록시/컬렉션을 초기화할 때 세션 batch fetch size 만큼 같은 종류의 미초기화 항목이 IN 쿼리로 함께 로딩된다.
+     */
+    private void initialize(Collection<?> owners, String[] names) {
+        Collection<?> current = owners;
+        for (String name : names) {
+            List<Object> next = new ArrayList<>();
+            for (Object owner : current) {
+                if (owner == null) {
+                    continue;
+                }
+                Object value = PropertyAccessorFactory.forDirectFieldAccess(Hibernate.unproxy(owner)).getPropertyValue(name);
+                Hibernate.initialize(value);
+                if (value instanceof Collection<?> collection) {
+                    next.addAll(collection);
+                } else if (value != null) {
+                    next.add(value);
+                }
+            }
+            current = next;
+        }
+    }
+
+    /**
+     * 컬렉션을 조인으로 가져오면서 페이징하면 하이버네이트가 메모리에서 페이징하므로 BATCH 로 바꾼다
+     */
+    private FetchPlan planForPagination(Pageable pageable, FetchPlan fetchPlan) {
+        if (fetchPlan == null || pageable.isUnpaged() || fetchPlan.getMode() != FetchPlan.Mode.ENTITY_GRAPH) {
+            return fetchPlan;
+        }
+        boolean hasCollection = fetchPlan.getAttributePaths().stream().anyMatch(this::isCollectionPath);
+        return hasCollection ? fetchPlan.toBatch(paginationBatchSize) : fetchPlan;
+    }
+
+    private EntityGraph<?> createEntityGraph(FetchPlan fetchPlan) {
+        EntityGraph<?> graph = entityManager.createEntityGraph(domainClass);
+        for (String attributePath : fetchPlan.getAttributePaths()) {
+            String[] names = attributePath.split("\\.");
+            if (names.length == 1) {
+                graph.addAttributeNodes(names[0]);
+                continue;
+            }
+            Subgraph<?> subgraph = graph.addSubgraph(names[0]);
+            for (int i = 1; i < names.length - 1; i++) {
+                subgraph = subgraph.addSubgraph(names[i]);
+            }
+            subgraph.addAttributeNodes(names[names.length - 1]);
+        }
+        return graph;
+    }
+
+    private boolean isCollectionPath(String attributePath) {
+        ManagedType<?> type = entityManager.getMetamodel().managedType(domainClass);
+        for (String name : attributePath.split("\\.")) {
+            Attribute<?, ?> attribute = type.getAttribute(name);
+            if (attribute.isCollection()) {
+                return true;
+            }
+            if (attribute instanceof SingularAttribute<?, ?> singular
+                    && singular.getType() instanceof ManagedType<?> managed) {
+                type = managed;
+            }
+        }
+        return false;
+    }
+}
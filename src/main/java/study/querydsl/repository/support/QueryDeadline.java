@@ -0,0 +1,86 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.Query;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 요청 deadline
+ * HTTP 요청은 QueryDeadlineFilter 가 열고 닫으며, QueryExecutor 는 작업 스레드로 그대로 넘겨준다.
+ * 쿼리를 실행할 때마다 남은 시간을 JPA query timeout 힌트로 걸어서, 시간이 지나면 DB 가 실행 중인 statement 를 취소하게 한다.
+ */
+public final class QueryDeadline {
+
+    private static final ThreadLocal<Long> current = new ThreadLocal<>();
+
+    private QueryDeadline() {
+    }
+
+    public static void start(Duration timeout) {
+        current.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static void stop() {
+        current.remove();
+    }
+
+    /**
+     * @return deadline (System.nanoTime 기준), 없으면 null
+     */
+    public static Long current() {
+        return current.get();
+    }
+
+    /**
+     * 다른 스레드에서 캡처한 deadline 으로 실행 (작업이 끝나면 원래 값으로 되돌림)
+     */
+    public static <T> T callWithin(Long deadline, Supplier<T> task) {
+        Long previous = current.get();
+        if (deadline == null) {
+            current.remove();
+        } else {
+            current.set(deadline);
+        }
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return 남은 시간(ns), deadline 이 없으면 Long.MAX_VALUE
+     */
+    public static long remainingNanos() {
+        Long deadline = current.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    public static void checkNotExpired() {
+        if (remainingNanos() <= 0) {
+            throw new QueryTimeoutException("request deadline exceeded");
+        }
+    }
+
+    /**
+     * 남은 시간을 query timeout 으로 건다. 이미 지났으면 실행하지 않고 바로 실패.
+     * JDBC timeout 은 초 단위라 올림한다 (하이버네이트가 ms -> 초로 반올림하면서 0 = 무제한이 되지 않도록)
+     */
+    public static Query apply(Query query) {
+        long remaining = remainingNanos();
+        if (remaining == Long.MAX_VALUE) {
+            return query;
+        }
+        checkNotExpired();
+        long seconds = Math.max(1, (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return query.setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, (int) Math.min(Integer.MAX_VALUE, seconds * 1000));
+    }
+}
@@ -0,0 +1,225 @@
+package study.querydsl.repository.support;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 조회 쿼리를 별도 스레드에서 실행하기 위한 executor
+ * 작업마다 새 읽기 전용 트랜잭션(REQUIRES_NEW)을 열기 때문에 스레드마다 별도의 EntityManager / 커넥션을 사용한다.
+ * 풀과 큐가 모두 차면 호출한 스레드에서 그대로 실행한다 (CallerRunsPolicy).
+ * 호출한 스레드의 요청 deadline(QueryDeadline)은 작업 스레드에도 그대로 적용된다.
+ *
+ * 호출한 스레드는 자기 커넥션을 잡은 채로 작업 결과를 기다리므로, 작업 스레드가 같은 커넥션 풀을 무제한으로 쓰면
+ * 동시 요청이 많을 때 호출자와 작업이 서로의 커넥션을 기다리며 풀이 고갈될 수 있다.
+ * 그래서 작업 스레드가 동시에 쓰는 커넥션 수를 max-connections 로 제한하고 (커넥션 풀 크기보다 작게 설정),
+ * 허용 수를 넘는 조회는 다른 스레드로 넘기지 않고 호출한 스레드의 트랜잭션(커넥션)에서 바로 실행한다.
+ * 결과를 기다리지 않는 재계산 / 재적재 같은 긴 작업은 runInBackground 로 전용 스레드 하나에서 같은 허용 수 안에서 실행한다.
+ */
+@Component
+public class QueryExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor backgroundExecutor;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate inlineTx;
+    private final Semaphore connectionPermits;
+
+    public QueryExecutor(PlatformTransactionManager transactionManager,
+                         @Value("${querydsl.query-executor.threads:16}") int threads,
+                         @Value("${querydsl.query-executor.queue-capacity:256}") int queueCapacity,
+                         @Value("${querydsl.query-executor.max-connections:4}") int maxConnections) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("max-connections must be positive: " + maxConnections);
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "query-executor-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        // 호출하는 쪽에서 대기 중인 작업을 하나로 합치므로 큐는 제한하지 않는다 (큐가 차서 이벤트를 발행한 스레드에서 실행되는 일이 없도록)
+        this.backgroundExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "query-executor-background");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.backgroundExecutor.allowCoreThreadTimeOut(true);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTx.setReadOnly(true);
+        // 호출한 스레드에서 실행할 때는 호출자의 트랜잭션에 참여해서 커넥션을 하나 더 잡지 않는다
+        this.inlineTx = new TransactionTemplate(transactionManager);
+        this.inlineTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        this.inlineTx.setReadOnly(true);
+        this.connectionPermits = new Semaphore(maxConnections);
+    }
+
+    /**
+     * 커넥션 허용 수가 남아 있으면 다른 스레드의 새 읽기 전용 트랜잭션에서 실행하고,
+     * 남아 있지 않으면 호출한 스레드에서 바로 실행해서 이미 완료된 future 를 돌려준다.
+     * 호출자가 쓰기 트랜잭션 안이면 새 트랜잭션에서는 커밋 전 변경이 보이지 않으므로 항상 호출자의 트랜잭션에서 실행한다.
+     * 작업 스레드에서 시작하기 전에 future 가 취소되면 쿼리를 실행하지 않는다.
+     */
+    public <T> CompletableFuture<T> submitReadOnly(Supplier<T> query) {
+        if (inReadWriteTransaction() || !connectionPermits.tryAcquire()) {
+            return runInline(query);
+        }
+        Long deadline = QueryDeadline.current();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (!future.isDone()) {
+                        future.complete(QueryDeadline.callWithin(deadline, () -> readOnlyTx.execute(status -> query.get())));
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    connectionPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            connectionPermits.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static boolean inReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private <T> CompletableFuture<T> runInline(Supplier<T> query) {
+        try {
+            return CompletableFuture.completedFuture(inlineTx.execute(status -> query.get()));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * count 쿼리를 먼저 다른 스레드에서 시작해두고 content 쿼리를 현재 스레드에서 실행한다.
+     * PageableExecutionUtils 가 content 만으로 total 을 알 수 있으면 count 결과는 기다리지 않는다.
+     * count 는 요청 deadline 까지만 기다리고, 그 안에 끝나지 않으면 취소한다.
+     * (아직 시작하지 않은 count 는 실행되지 않고, 실행 중인 statement 는 같은 deadline 의 query timeout 으로 DB 에서 취소된다)
+     * 커넥션 허용 수가 남아 있지 않으면 count 를 현재 스레드에서 먼저 실행한다 (submitReadOnly 참고).
+     */
+    public <T> Page<T> pageWithConcurrentCount(Pageable pageable, Supplier<List<T>> contentQuery, Supplier<Long> countQuery) {
+        CompletableFuture<Long> count = submitReadOnly(countQuery);
+        List<T> content;
+        try {
+            content = contentQuery.get();
+        } catch (RuntimeException e) {
+            count.cancel(true);
+            throw e;
+        }
+
+        AtomicBoolean countUsed = new AtomicBoolean();
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            countUsed.set(true);
+            Long total = await(count);
+            return total != null ? total : 0L;
+        });
+        if (!countUsed.get()) {
+            count.cancel(true); // 결과를 쓰지 않으므로 기다리지 않음
+        }
+        return page;
+    }
+
+    /**
+     * 결과를 기다리지 않는 긴 작업 (통계 재계산, 인덱스 재적재 등)
+     * 전용 스레드 하나에서 순서대로 실행하고, 실행하는 동안 커넥션 허용 수 하나를 차지한다.
+     */
+    public void runInBackground(Runnable task) {
+        backgroundExecutor.execute(() -> {
+            try {
+                connectionPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                connectionPermits.release();
+            }
+        });
+    }
+
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 요청 deadline 이 있으면 남은 시간만큼만 기다린다
+     */
+    static <T> T await(CompletableFuture<T> future) {
+        long remaining = QueryDeadline.remainingNanos();
+        if (remaining == Long.MAX_VALUE) {
+            return join(future);
+        }
+        try {
+            return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new QueryTimeoutException("request deadline exceeded while waiting for count query", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("interrupted while waiting for count query", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        backgroundExecutor.shutdownNow();
+    }
+}
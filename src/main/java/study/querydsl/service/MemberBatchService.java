@@ -0,0 +1,238 @@
+package study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.BulkOperationException;
+import study.querydsl.repository.support.BulkOptions;
+import study.querydsl.repository.support.BulkProgress;
+import study.querydsl.repository.support.MemberUsernameIndex;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 전체를 대상으로 하는 오프라인 배치 처리
+ * member.id 범위(chunkSize 크기의 window)로 나눠서 parallelism 개의 스레드가 window 를 하나씩 가져가 처리한다.
+ * window 마다 새 트랜잭션(= 새 EntityManager)에서 조회 -> consumer 실행 -> 커밋하므로 영속성 컨텍스트는 window 단위로 비워진다.
+ * consumer 에서 엔티티를 수정하면 커밋 시 반영된다.
+ * <p>
+ * 진행 상황의 lastCompletedId 는 그 id 까지의 window 가 모두 끝났다는 뜻(연속으로 완료된 구간의 끝)이다.
+ * 실패하면 BulkOperationException.getLastCompletedId() 로 BulkOptions.resumeAfter() 해서 이어서 실행할 수 있고,
+ * 이때 그 이후에 이미 끝났던 window 는 한 번 더 처리될 수 있으므로 consumer 는 멱등이어야 한다.
+ * consumer / 진행 상황 리스너는 여러 스레드에서 동시에 호출된다.
+ */
+@Slf4j
+@Service
+public class MemberBatchService {
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate chunkTransaction;
+    private final MemberUsernameIndex usernameIndex;
+
+    public MemberBatchService(JPAQueryFactory queryFactory,
+                              PlatformTransactionManager transactionManager,
+                              MemberUsernameIndex usernameIndex) {
+        this.queryFactory = queryFactory;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.usernameIndex = usernameIndex;
+    }
+
+    public long forEachMemberChunk(MemberSearchCondition condition, int chunkSize, int parallelism,
+                                   Consumer<List<Member>> consumer) {
+        return forEachMemberChunk(condition, new BulkOptions(chunkSize, Duration.ZERO), parallelism, consumer);
+    }
+
+    /**
+     * @return 처리한 회원 수
+     */
+    public long forEachMemberChunk(MemberSearchCondition condition, BulkOptions options, int parallelism,
+                                   Consumer<List<Member>> consumer) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        Long startAfterId = options.getStartAfterId();
+        NumberExpression<Long> minExpr = member.id.min();
+        NumberExpression<Long> maxExpr = member.id.max();
+        Tuple bounds = queryFactory
+                .select(minExpr, maxExpr)
+                .from(member)
+                .where(startAfterId != null ? member.id.gt(startAfterId) : null)
+                .fetchOne();
+        Long minId = bounds != null ? bounds.get(minExpr) : null;
+        Long maxId = bounds != null ? bounds.get(maxExpr) : null;
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        Watermark watermark = new Watermark(minId, startAfterId, maxId, options);
+        AtomicLong nextFrom = new AtomicLong(minId);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicInteger threadSequence = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "member-batch-" + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(workers.submit(() -> {
+                    while (failure.get() == null && !Thread.currentThread().isInterrupted()) {
+                        long from = nextFrom.getAndAdd(options.getChunkSize());
+                        if (from > maxId) {
+                            return;
+                        }
+                        long to = Math.min(maxId, from + options.getChunkSize() - 1);
+                        try {
+                            Integer rows = chunkTransaction.execute(status -> processWindow(condition, from, to, consumer));
+                            watermark.complete(from, to, rows != null ? rows : 0);
+                            pause(options);
+                        } catch (RuntimeException e) {
+                            log.warn("member batch failed at ids {}..{}", from, to, e);
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw watermark.failed("Member batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw watermark.failed("Member batch failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        if (failure.get() != null) {
+            throw watermark.failed("Member batch failed", failure.get());
+        }
+        return watermark.processedRows();
+    }
+
+    private int processWindow(MemberSearchCondition condition, long from, long to, Consumer<List<Member>> consumer) {
+        List<Member> members = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(
+                        member.id.between(from, to),
+                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition),
+                        teamNameEq(condition.getTeamName()),
+                        ageGOE(condition.getAgeGoe()),
+                        ageLOE(condition.getAgeLoe())
+                )
+                .orderBy(member.id.asc())
+                .fetch();
+        if (!members.isEmpty()) {
+            consumer.accept(members);
+        }
+        return members.size();
+    }
+
+    private void pause(BulkOptions options) {
+        if (options.getPause().isZero() || options.getPause().isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(options.getPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression usernameMatches(MemberSearchCondition condition) {
+        return usernameIndex.predicate(condition);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGOE(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLOE(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    /**
+     * window 는 순서 없이 끝나므로, 앞에서부터 빈틈없이 완료된 구간의 끝을 재시작 지점으로 관리한다
+     */
+    private static class Watermark {
+
+        private final long maxId;
+        private final BulkOptions options;
+        private final long startedAt = System.nanoTime();
+        private final Map<Long, Long> completedAhead = new HashMap<>(); // from -> to
+        private long nextExpectedFrom;
+        private Long lastCompletedId;
+        private int completedChunks;
+        private long processedRows;
+
+        private Watermark(long minId, Long startAfterId, long maxId, BulkOptions options) {
+            this.nextExpectedFrom = minId;
+            this.lastCompletedId = startAfterId;
+            this.maxId = maxId;
+            this.options = options;
+        }
+
+        private void complete(long from, long to, int rows) {
+            BulkProgress progress;
+            synchronized (this) {
+                completedChunks++;
+                processedRows += rows;
+                completedAhead.put(from, to);
+                Long end;
+                while ((end = completedAhead.remove(nextExpectedFrom)) != null) {
+                    lastCompletedId = end;
+                    nextExpectedFrom = end + 1;
+                }
+                progress = new BulkProgress(completedChunks, nextExpectedFrom - 1, maxId, processedRows,
+                        Duration.ofNanos(System.nanoTime() - startedAt));
+            }
+            log.debug("member batch progress {} ({} rows/s)", progress, String.format("%.1f", progress.getRowsPerSecond()));
+            options.getProgressListener().accept(progress);
+        }
+
+        private synchronized long processedRows() {
+            return processedRows;
+        }
+
+        private synchronized BulkOperationException failed(String message, Throwable cause) {
+            return new BulkOperationException(message, lastCompletedId, processedRows, cause);
+        }
+    }
+}
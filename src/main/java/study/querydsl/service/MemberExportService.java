@@ -0,0 +1,87 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 검색 결과를 List 로 모으지 않고 DB 커서에서 읽는 대로 바로 응답에 써주는 export
+ * 메모리에는 JDBC fetch size 만큼의 row 만 올라온다. (DTO projection 이라 영속성 컨텍스트에는 아무것도 쌓이지 않음)
+ */
+@Service
+public class MemberExportService {
+
+    private static final String CSV_HEADER = "memberId,username,age,teamId,teamName";
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public MemberExportService(MemberJpaRepository memberJpaRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${querydsl.export.fetch-size:1000}") int fetchSize) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    @Transactional(readOnly = true)
+    public long export(MemberSearchCondition condition, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long count = 0;
+        try (Stream<MemberTeamDTO> stream = memberJpaRepository.streamSearch(condition, fetchSize)) {
+            Iterator<MemberTeamDTO> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writeRow(writer, format, iterator.next());
+                count++;
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeRow(Writer writer, ExportFormat format, MemberTeamDTO row) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+        } else {
+            writer.write(String.valueOf(row.getMemberId()));
+            writer.write(',');
+            writer.write(csv(row.getUsername()));
+            writer.write(',');
+            writer.write(String.valueOf(row.getAge()));
+            writer.write(',');
+            writer.write(row.getTeamId() != null ? String.valueOf(row.getTeamId()) : "");
+            writer.write(',');
+            writer.write(csv(row.getTeamName()));
+        }
+        writer.write('\n');
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
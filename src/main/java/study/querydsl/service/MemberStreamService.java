@@ -0,0 +1,75 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.KeysetCursor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 검색 결과를 keyset 페이지 단위로 조회해서 SSE(text/event-stream) 이벤트로 바로 내려준다
+ * 페이지마다 짧은 읽기 전용 트랜잭션으로 조회하고, 쓰기(flush)가 끝나야 다음 페이지를 조회하므로
+ * 클라이언트가 느리면 DB 조회도 같이 멈춘다 (커넥션은 잡고 있지 않음).
+ * 이벤트 id 는 다음 cursor 이므로 클라이언트는 Last-Event-ID 로 이어받을 수 있다.
+ */
+@Service
+public class MemberStreamService {
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public MemberStreamService(MemberRepository memberRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${querydsl.stream.chunk-size:200}") int chunkSize) {
+        this.memberRepository = memberRepository;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 이어받을 cursor(Last-Event-ID) 가 올바른지 확인한다
+     * 스트림을 시작하면 200 응답이 이미 나간 뒤라 상태 코드를 바꿀 수 없으므로 응답 전에 먼저 호출한다.
+     * @throws IllegalArgumentException 잘못된 cursor
+     */
+    public void validateCursor(String cursor) {
+        KeysetCursor.decode(cursor);
+    }
+
+    public long stream(MemberSearchCondition condition, String cursor, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        String next = cursor;
+        CursorSlice<MemberTeamDTO> slice;
+        do {
+            slice = memberRepository.searchByCursor(condition, next, chunkSize);
+            next = slice.getNextCursor();
+            if (!slice.getContent().isEmpty()) {
+                writeEvent(writer, "members", next, objectMapper.writeValueAsString(slice.getContent()));
+                count += slice.getContent().size();
+            }
+        } while (slice.isHasNext());
+
+        writeEvent(writer, "end", null, "{\"count\":" + count + "}");
+        return count;
+    }
+
+    private void writeEvent(Writer writer, String event, String id, String data) throws IOException {
+        writer.write("event: " + event + "\n");
+        if (id != null) {
+            writer.write("id: " + id + "\n");
+        }
+        writer.write("data: " + data + "\n\n");
+        writer.flush(); // 청크마다 바로 내보내야 첫 row 가 바로 클라이언트에 도착한다
+    }
+}
@@ -0,0 +1,198 @@
+package study.querydsl.service;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.QTeamStatsDTO;
+import study.querydsl.dto.TeamStatsDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.entity.listener.EntityChangedEvent;
+import study.querydsl.repository.TeamRepository;
+import study.querydsl.repository.support.QueryExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.entity.QTeamStats.teamStats;
+
+/**
+ * 팀별 통계 조회 / 재계산 / 정합성 확인
+ * 평소에는 TeamStatsListener 가 증분 갱신하고, 벌크 연산처럼 row 단위 변경을 알 수 없을 때만 전체를 다시 계산한다.
+ */
+@Slf4j
+@Service
+public class TeamStatsService {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate writeTx;
+    private final TransactionTemplate readOnlyTx;
+    private final QueryExecutor queryExecutor;
+    private final TeamRepository teamRepository;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    public TeamStatsService(EntityManager em,
+                            JPAQueryFactory queryFactory,
+                            PlatformTransactionManager transactionManager,
+                            QueryExecutor queryExecutor,
+                            TeamRepository teamRepository) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.queryExecutor = queryExecutor;
+        this.teamRepository = teamRepository;
+    }
+
+    /**
+     * 이름으로 팀 통계 조회 - 이름은 유일하지 않으므로 같은 이름의 팀을 모두 돌려준다
+     * 이름 -> 팀은 쿼리 캐시(team-by-name) 와 Team 2차 캐시에서 찾고, DB 에는 통계 row 만 id 로 조회한다.
+     */
+    public List<TeamStatsDTO> findByTeamName(String name) {
+        return readOnlyTx.execute(status -> {
+            Map<Long, String> names = new HashMap<>();
+            teamRepository.findByName(name).forEach(found -> names.put(found.getId(), found.getName()));
+            if (names.isEmpty()) {
+                return new ArrayList<>();
+            }
+            List<TeamStats> stats = queryFactory
+                    .selectFrom(teamStats)
+                    .where(teamStats.teamId.in(names.keySet()))
+                    .orderBy(teamStats.teamId.asc())
+                    .fetch();
+            List<TeamStatsDTO> result = new ArrayList<>(stats.size());
+            for (TeamStats row : stats) {
+                result.add(new TeamStatsDTO(row.getTeamId(), names.get(row.getTeamId()), row.getMemberCount(),
+                        row.getAgeSum(), row.getMinAge(), row.getMaxAge()));
+            }
+            return result;
+        });
+    }
+
+    public List<TeamStatsDTO> findAll() {
+        return readOnlyTx.execute(status -> queryFactory
+                .select(new QTeamStatsDTO(
+                        teamStats.teamId,
+                        team.name,
+                        teamStats.memberCount,
+                        teamStats.ageSum,
+                        teamStats.minAge,
+                        teamStats.maxAge))
+                .from(teamStats)
+                .join(team).on(team.id.eq(teamStats.teamId))
+                .orderBy(teamStats.teamId.asc())
+                .fetch());
+    }
+
+    /**
+     * member 테이블로부터 전체 통계를 다시 계산
+     * 기존 통계 row 에 먼저 lock 을 걸어두므로 재계산 중에 커밋하려는 증분 갱신은 재계산이 끝난 뒤에 반영된다.
+     * @return 재계산한 팀 수
+     */
+    public int rebuild() {
+        Integer rebuilt = writeTx.execute(status -> {
+            Map<Long, TeamStats> existing = new HashMap<>();
+            for (TeamStats stats : queryFactory.selectFrom(teamStats).setLockMode(LockModeType.PESSIMISTIC_WRITE).fetch()) {
+                existing.put(stats.getTeamId(), stats);
+            }
+
+            List<Tuple> rows = aggregate();
+            for (Tuple row : rows) {
+                Long teamId = row.get(team.id);
+                TeamStats stats = existing.remove(teamId);
+                if (stats == null) {
+                    stats = new TeamStats(teamId);
+                    em.persist(stats);
+                }
+                stats.reset(longValue(row.get(1, Number.class)), longValue(row.get(2, Number.class)),
+                        row.get(3, Integer.class), row.get(4, Integer.class));
+            }
+            existing.values().forEach(em::remove); // 삭제된 팀
+            return rows.size();
+        });
+        log.info("team stats rebuilt: {} teams", rebuilt);
+        return rebuilt != null ? rebuilt : 0;
+    }
+
+    /**
+     * 저장된 통계와 member 테이블 집계 결과를 비교
+     * @return 값이 다른 (또는 통계 row 가 없거나 남아있는) 팀 id
+     */
+    public List<Long> findInconsistentTeams() {
+        return readOnlyTx.execute(status -> {
+            Map<Long, TeamStats> stored = new HashMap<>();
+            for (TeamStats stats : queryFactory.selectFrom(teamStats).fetch()) {
+                stored.put(stats.getTeamId(), stats);
+            }
+
+            List<Long> inconsistent = new ArrayList<>();
+            for (Tuple row : aggregate()) {
+                Long teamId = row.get(team.id);
+                TeamStats stats = stored.remove(teamId);
+                long count = longValue(row.get(1, Number.class));
+                long sum = longValue(row.get(2, Number.class));
+                if (stats == null
+                        || stats.getMemberCount() != count
+                        || stats.getAgeSum() != sum
+                        || !Objects.equals(stats.getMinAge(), row.get(3, Integer.class))
+                        || !Objects.equals(stats.getMaxAge(), row.get(4, Integer.class))) {
+                    log.warn("team stats mismatch: teamId={}, stored={}, actual=[count={}, sum={}, min={}, max={}]",
+                            teamId, stats, count, sum, row.get(3, Integer.class), row.get(4, Integer.class));
+                    inconsistent.add(teamId);
+                }
+            }
+            for (Long teamId : stored.keySet()) {
+                log.warn("team stats for deleted team: teamId={}", teamId);
+                inconsistent.add(teamId);
+            }
+            return inconsistent;
+        });
+    }
+
+    /**
+     * 벌크 연산은 어떤 row 가 바뀌었는지 알 수 없으므로 재계산
+     * 청크 단위 벌크 연산처럼 이벤트가 연달아 와도 대기 중인 재계산은 하나만 둔다.
+     */
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!event.isBulk() || (event.getEntityType() != Member.class && event.getEntityType() != Team.class)) {
+            return;
+        }
+        if (rebuildPending.compareAndSet(false, true)) {
+            queryExecutor.runInBackground(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private List<Tuple> aggregate() {
+        return queryFactory
+                .select(team.id, member.count(), member.age.sum(), member.age.min(), member.age.max())
+                .from(team)
+                .leftJoin(team.members, member)
+                .groupBy(team.id)
+                .fetch();
+    }
+
+    private static long longValue(Number value) {
+        return value != null ? value.longValue() : 0L;
+    }
+}
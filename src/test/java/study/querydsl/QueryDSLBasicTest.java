@@ -27,12 +27,15 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.DtoProjections;
+import study.querydsl.support.QueryCountAssertions.QueryCountScope;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 import static study.querydsl.entity.QMember.member;// static import 로 해당 인스턴스를 가져다쓰는 방법
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.support.QueryCountAssertions.*;
 
 @SpringBootTest
 @Transactional
@@ -328,6 +331,29 @@ public class QueryDSLBasicTest {
         assertThat(isLoaded).as("페치 조인  적용").isTrue();
     }
 
+    @Test
+    public void fetchJoinQueryCountTest() throws Exception {
+        em.flush();
+        em.clear();
+
+        try (QueryCountScope ignored = startQueryCount()) {
+            List<Member> lazyResult = queryFactory.selectFrom(member).fetch();
+            for (Member findMember : lazyResult) {
+                findMember.getTeam().getName(); // 팀 마다 추가 쿼리 (N+1)
+            }
+            assertQueryCount(1 + 2);
+        }
+
+        em.clear();
+        try (QueryCountScope ignored = startQueryCount()) {
+            List<Member> fetchJoinResult = queryFactory.selectFrom(member).join(member.team, team).fetchJoin().fetch();
+            for (Member findMember : fetchJoinResult) {
+                findMember.getTeam().getName();
+            }
+            assertQueryCount(1);
+        }
+    }
+
     /**
      * 나이가 가장 많은 회원 조회
      */
@@ -550,6 +576,27 @@ public class QueryDSLBasicTest {
     }
 
 
+    @Test
+    public void findDTOByDtoProjectionsTest() throws Exception {
+        List<MemberDTO> result = queryFactory
+                .select(DtoProjections.bean(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch();
+        assertThat(result).extracting("username").containsExactly("member1", "member2", "member3", "member4");
+
+        List<UserDTO> userResult = queryFactory
+                .select(DtoProjections.bean(UserDTO.class, member.username.as("name"), member.age))
+                .from(member)
+                .fetch();
+        assertThat(userResult).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+
+        List<UserDTO> constructorResult = queryFactory
+                .select(DtoProjections.constructor(UserDTO.class, member.username, member.age))
+                .from(member)
+                .fetch();
+        assertThat(constructorResult).extracting("age").containsExactly(10, 20, 30, 40);
+    }
+
     @Test
     public void findDByQueryProjectionTest() throws Exception {
         List<MemberDTO> result = queryFactory
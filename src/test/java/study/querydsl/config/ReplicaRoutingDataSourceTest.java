@@ -0,0 +1,109 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * H2 in-memory DB 두 개를 primary / replica 로 두고 라우팅을 확인한다 (스프링 컨텍스트 없이 실행)
+ */
+class ReplicaRoutingDataSourceTest {
+
+    DriverManagerDataSource primary;
+    DriverManagerDataSource replica;
+    ReplicaLagMonitor lagMonitor;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readWriteTx;
+    TransactionTemplate readOnlyTx;
+
+    @BeforeEach
+    public void before() {
+        primary = h2("primary");
+        replica = h2("replica");
+        lagMonitor = new ReplicaLagMonitor(replica, null, null, Duration.ofSeconds(5));
+
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, lagMonitor));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbcTemplate = new JdbcTemplate(routing);
+        readWriteTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void after() {
+        lagMonitor.close();
+        new JdbcTemplate(primary).execute("drop table node");
+        new JdbcTemplate(replica).execute("drop table node");
+    }
+
+    @Test
+    public void routeByReadOnlyTest() throws Exception {
+        assertThat(readOnlyTx.execute(status -> currentNode())).isEqualTo("replica");
+        assertThat(readWriteTx.execute(status -> currentNode())).isEqualTo("primary");
+        assertThat(currentNode()).isEqualTo("primary"); // 트랜잭션 밖
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenLaggingTest() throws Exception {
+        ReplicaLagMonitor laggingMonitor = new ReplicaLagMonitor(replica, "select 10", null, Duration.ofSeconds(5));
+        laggingMonitor.checkNow();
+        assertThat(laggingMonitor.isReplicaUsable()).isFalse();
+
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, laggingMonitor));
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        tx.setReadOnly(true);
+        JdbcTemplate template = new JdbcTemplate(routing);
+
+        assertThat(tx.execute(status -> template.queryForObject("select name from node", String.class))).isEqualTo("primary");
+        laggingMonitor.close();
+    }
+
+    @Test
+    public void hikariSettingsBoundTest() throws Exception {
+        DataSourceProperties primaryProperties = new DataSourceProperties();
+        primaryProperties.setUrl("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+        primaryProperties.setUsername("sa");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "7")
+                .withProperty("spring.datasource.hikari.connection-timeout", "1500")
+                .withProperty("querydsl.datasource.replica.hikari.maximum-pool-size", "3");
+
+        try (ReplicaDataSourceConfig.RoutingDataSource routing = new ReplicaDataSourceConfig().dataSource(primaryProperties,
+                "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", "", "", "", "", Duration.ofSeconds(5), Duration.ofSeconds(5),
+                environment)) {
+            // 부트 기본 DataSource 와 같이 hikari 설정이 primary / replica 풀에 각각 적용된다
+            HikariDataSource primaryPool = routing.getPools().get(0);
+            HikariDataSource replicaPool = routing.getPools().get(1);
+            assertThat(primaryPool.getMaximumPoolSize()).isEqualTo(7);
+            assertThat(primaryPool.getConnectionTimeout()).isEqualTo(1500);
+            assertThat(replicaPool.getMaximumPoolSize()).isEqualTo(3);
+            assertThat(replicaPool.isReadOnly()).isTrue();
+        }
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DriverManagerDataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
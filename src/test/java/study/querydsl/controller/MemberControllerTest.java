@@ -0,0 +1,145 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.support.KeysetCursor;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SSE 스트림은 페이지마다 별도 읽기 전용 트랜잭션으로 조회하므로 테스트 트랜잭션(@Transactional) 없이 커밋된 데이터로 검증한다 (정리는 CommittedDataTestSupport)
+ */
+@SpringBootTest(properties = "querydsl.stream.chunk-size=2")
+@AutoConfigureMockMvc
+class MemberControllerTest extends CommittedDataTestSupport {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void streamMembersTest() throws Exception {
+        List<Member> members = saveMembers();
+
+        String body = stream(null);
+
+        // chunk-size 2 -> members 이벤트 2개 + end 이벤트, 이벤트 id 는 다음 cursor (마지막 페이지는 다음 cursor 가 없어서 id 도 없음)
+        assertThat(body).startsWith("event: members\nid: " + KeysetCursor.encode(members.get(1).getId()) + "\ndata: [");
+        assertThat(body).contains("\n\nevent: members\ndata: [");
+        assertThat(body).contains("\"username\":\"member1\"", "\"username\":\"member2\"", "\"username\":\"member3\"");
+        assertThat(body).endsWith("event: end\ndata: {\"count\":3}\n\n");
+    }
+
+    @Test
+    public void resumeWithLastEventIdTest() throws Exception {
+        List<Member> members = saveMembers();
+
+        String body = stream(KeysetCursor.encode(members.get(1).getId()));
+
+        // 마지막으로 받은 이벤트 다음부터 이어서 내려준다
+        assertThat(body).startsWith("event: members\ndata: [");
+        assertThat(body).endsWith("event: end\ndata: {\"count\":1}\n\n");
+        assertThat(body).contains("\"username\":\"member3\"");
+        assertThat(body).doesNotContain("\"username\":\"member1\"", "\"username\":\"member2\"");
+    }
+
+    @Test
+    public void invalidLastEventIdTest() throws Exception {
+        // 스트림을 시작하기 전에 검증해서 200 대신 400 을 내려준다
+        mockMvc.perform(get("/v1/members/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "not-a-cursor"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void cursorPageTest() throws Exception {
+        List<Member> members = saveMembers();
+
+        mockMvc.perform(get("/v4/members").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username").value(contains("member1", "member2")))
+                .andExpect(jsonPath("$.nextCursor").value(KeysetCursor.encode(members.get(1).getId())))
+                .andExpect(jsonPath("$.hasNext").value(true));
+        mockMvc.perform(get("/v4/members").param("size", "2").param("cursor", KeysetCursor.encode(members.get(1).getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].username").value(contains("member3")))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    public void invalidCursorTest() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportTest() throws Exception {
+        saveMembers();
+
+        MvcResult result = mockMvc.perform(get("/v1/members/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=members.csv"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        assertThat(csv.split("\n")).hasSize(4).first().isEqualTo("memberId,username,age,teamId,teamName");
+    }
+
+    @Test
+    public void unsupportedExportFormatTest() throws Exception {
+        mockMvc.perform(get("/v1/members/export").param("format", "xml"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    private String stream(String lastEventId) throws Exception {
+        var builder = get("/v1/members/stream").accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private List<Member> saveMembers() {
+        Team teamA = new Team("teamA");
+        List<Member> members = List.of(new Member("member1", 10, teamA), new Member("member2", 20, teamA),
+                new Member("member3", 30, teamA));
+        memberJpaRepository.saveAll(members);
+        return members;
+    }
+}
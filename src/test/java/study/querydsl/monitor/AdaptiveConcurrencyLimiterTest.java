@@ -0,0 +1,81 @@
+package study.querydsl.monitor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private AdaptiveConcurrencyLimiter limiter(SimpleMeterRegistry registry, Duration latencyThreshold) {
+        return new AdaptiveConcurrencyLimiter(registry, new StaticListableBeanFactory().getBeanProvider(DataSource.class),
+                2, 1, 4, latencyThreshold, Duration.ofMillis(10), 1, 0.5);
+    }
+
+    @Test
+    public void rejectWhenLimitReachedTest() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = limiter(registry, Duration.ofMinutes(1));
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(registry.get("querydsl.limiter.inflight").gauge().value()).isEqualTo(2);
+
+        // limit 초과 -> max-wait 후 거절
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(registry.get("querydsl.limiter.rejected").counter().count()).isEqualTo(1);
+
+        // 꽉 채워 빠르게 끝났으니 limit 증가
+        second.close();
+        first.close();
+        assertThat(limiter.getLimit()).isGreaterThan(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void decreaseLimitOnSlowRequestTest() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = limiter(registry, Duration.ZERO);
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        Thread.sleep(1);
+        permit.close();
+        permit.close(); // 중복 close 는 무시
+
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(registry.get("querydsl.limiter.limit").gauge().value()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void decreaseOncePerWindowTest() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(registry,
+                new StaticListableBeanFactory().getBeanProvider(DataSource.class),
+                20, 1, 200, Duration.ofMillis(1), Duration.ofMillis(10), 1, 0.5);
+
+        // 동시에 느렸던 요청 5개가 끝나도 limit 은 한 번만 줄어든다
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+        Thread.sleep(5);
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::close);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        // 감소 이후에 시작해서 느렸던 요청은 다시 줄인다
+        AdaptiveConcurrencyLimiter.Permit next = limiter.tryAcquire();
+        Thread.sleep(5);
+        next.close();
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+}
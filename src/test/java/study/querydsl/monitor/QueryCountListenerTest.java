@@ -0,0 +1,56 @@
+package study.querydsl.monitor;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 트랜잭션 범위 카운트를 직접 열고 닫아야 하므로 테스트 트랜잭션(@Transactional) 없이 실행한다
+ */
+@SpringBootTest
+class QueryCountListenerTest {
+
+    @SpyBean
+    QueryBudget queryBudget;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void requiresNewCountedSeparatelyTest() throws Exception {
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        outer.setName("outerTx");
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setName("innerTx");
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(status -> {
+            em.createQuery("select count(m) from Member m").getSingleResult();
+            inner.executeWithoutResult(innerStatus -> {
+                em.createQuery("select count(t) from Team t").getSingleResult();
+                em.createQuery("select count(t) from Team t").getSingleResult();
+                em.createQuery("select count(t) from Team t").getSingleResult();
+            });
+            em.createQuery("select count(m) from Member m").getSingleResult();
+        });
+
+        // 안쪽 트랜잭션의 SQL 은 바깥 트랜잭션 예산에 더해지지 않는다
+        ArgumentCaptor<QueryCount> innerCount = ArgumentCaptor.forClass(QueryCount.class);
+        ArgumentCaptor<QueryCount> outerCount = ArgumentCaptor.forClass(QueryCount.class);
+        verify(queryBudget).check(eq("transaction innerTx"), innerCount.capture());
+        verify(queryBudget).check(eq("transaction outerTx"), outerCount.capture());
+        assertThat(innerCount.getValue().getTotal()).isEqualTo(3);
+        assertThat(outerCount.getValue().getTotal()).isEqualTo(2);
+    }
+}
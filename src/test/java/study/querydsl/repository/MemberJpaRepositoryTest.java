@@ -1,6 +1,10 @@
 package study.querydsl.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +15,9 @@ import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -23,6 +29,8 @@ class MemberJpaRepositoryTest  {
     EntityManager em;
     @Autowired
     MemberJpaRepository memberJpaRepository;
+    @Autowired
+    EntityManagerFactory emf;
 
 
     @Test
@@ -69,4 +77,63 @@ class MemberJpaRepositoryTest  {
 
         assertThat(result).extracting("username").containsExactly("member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void streamSearchTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        try (Stream<MemberTeamDTO> stream = memberJpaRepository.streamSearch(condition, 1)) {
+            assertThat(stream).extracting("username").containsExactly("member1", "member2");
+        }
+    }
+
+    @Test
+    public void saveAllBatchTest() throws Exception {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Team teamA = new Team("teamA");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            members.add(new Member("member" + i, i, teamA));
+        }
+
+        int saved = memberJpaRepository.saveAll(members);
+
+        assertThat(saved).isEqualTo(300);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(301);
+        // 배치가 동작하면 insert 마다 statement 를 새로 준비하지 않는다 (배치 단위 + 시퀀스 조회 정도)
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(members.size() / 5);
+    }
+
+    @Test
+    public void readOnlyQueryTest() throws Exception {
+        memberJpaRepository.save(new Member("member1", 10));
+        em.flush();
+        em.clear();
+
+        List<Member> result = memberJpaRepository.findByUsernameReadOnly_QueryDSL("member1");
+        Session session = em.unwrap(Session.class);
+        assertThat(result).hasSize(1).allMatch(session::isReadOnly);
+
+        // 읽기 전용 엔티티는 변경해도 flush 대상이 아니다
+        result.get(0).setUsername("changed");
+        em.flush();
+        em.clear();
+
+        assertThat(memberJpaRepository.findByUsername("member1")).hasSize(1);
+        assertThat(memberJpaRepository.findAllReadOnly()).allMatch(session::isReadOnly);
+    }
+}
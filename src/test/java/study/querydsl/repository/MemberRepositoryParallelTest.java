@@ -0,0 +1,75 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 범위별 조회가 별도 스레드 / 트랜잭션에서 실행되므로 테스트 트랜잭션(@Transactional) 없이 커밋된 데이터로 검증한다 (정리는 CommittedDataTestSupport)
+ */
+@SpringBootTest
+class MemberRepositoryParallelTest extends CommittedDataTestSupport {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void searchParallelTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            members.add(new Member("member" + i, (i * 7) % 20, i % 2 == 0 ? teamA : teamB));
+        }
+        memberJpaRepository.saveAll(members);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        List<MemberTeamDTO> byId = memberRepository.searchParallel(condition, Sort.unsorted(), 4);
+        assertThat(byId).hasSize(10);
+        assertThat(byId).extracting("memberId").isSorted();
+
+        List<MemberTeamDTO> byAgeDesc = memberRepository.searchParallel(condition, Sort.by(Sort.Direction.DESC, "age"), 3);
+        assertThat(byAgeDesc).hasSize(10);
+        assertThat(byAgeDesc).extracting("age")
+                .containsExactlyElementsOf(byAgeDesc.stream().map(MemberTeamDTO::getAge).sorted((a, b) -> b - a).toList());
+    }
+
+    @Test
+    public void searchParallelStringSortTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("TeamB");
+        Team teamC = new Team("teamC");
+        // 대소문자가 섞인 이름을 id 범위마다 흩어지게 저장
+        List<String> usernames = List.of("dave", "Bob", "alice", "Carol", "bob2", "Alan", "eve", "Dan");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < usernames.size(); i++) {
+            members.add(new Member(usernames.get(i), i, List.of(teamA, teamB, teamC).get(i % 3)));
+        }
+        memberJpaRepository.saveAll(members);
+
+        // MySQL 기본 collation (대소문자 무시) 순서와 같아야 한다
+        List<MemberTeamDTO> byUsername = memberRepository.searchParallel(new MemberSearchCondition(), Sort.by("username"), 4);
+        assertThat(byUsername).extracting("username")
+                .containsExactly("Alan", "alice", "Bob", "bob2", "Carol", "Dan", "dave", "eve");
+
+        List<MemberTeamDTO> byTeamNameDesc = memberRepository.searchParallel(new MemberSearchCondition(),
+                Sort.by(Sort.Direction.DESC, "teamName"), 4);
+        assertThat(byTeamNameDesc).extracting("teamName")
+                .containsExactly("teamC", "teamC", "TeamB", "TeamB", "TeamB", "teamA", "teamA", "teamA");
+    }
+}
@@ -4,18 +4,26 @@ import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.CursorSlice;
+import study.querydsl.dto.MemberFacetDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberSearchTemplates;
+import study.querydsl.repository.support.QueryDeadline;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -25,6 +33,8 @@ class MemberRepositoryTest {
     EntityManager em;
     @Autowired
     MemberRepository memberRepository;
+    @Autowired
+    MemberSearchTemplates searchTemplates;
 
 
     @Test
@@ -98,6 +108,157 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
     
+    @Test
+    public void searchTemplateReuseTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        condition.setAgeGoe(5);
+        memberRepository.search(condition);
+
+        double hitsBefore = searchTemplates.hitCount();
+        double missesBefore = searchTemplates.missCount();
+
+        MemberSearchCondition sameShape = new MemberSearchCondition();
+        sameShape.setUsername("member2");
+        sameShape.setAgeGoe(15);
+        List<MemberTeamDTO> result = memberRepository.search(sameShape);
+
+        assertThat(result).extracting("username").containsExactly("member2");
+        assertThat(searchTemplates.hitCount()).isEqualTo(hitsBefore + 1);
+        assertThat(searchTemplates.missCount()).isEqualTo(missesBefore);
+    }
+
+    @Test
+    public void searchPagingWindowCountTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3);
+        Page<MemberTeamDTO> result = memberRepository.searchPageComplex(condition, pageRequest, PageStrategy.WINDOW_COUNT);
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+
+        Page<MemberTeamDTO> outOfRange = memberRepository.searchPageComplex(condition, PageRequest.of(5, 3), PageStrategy.WINDOW_COUNT);
+        assertThat(outOfRange.getContent()).isEmpty();
+        assertThat(outOfRange.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void searchPagingConcurrentCountTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.flush();
+
+        // 쓰기 트랜잭션(테스트 트랜잭션) 안에서는 count 도 같은 트랜잭션에서 실행되어 커밋 전 데이터를 본다
+        // 첫 페이지가 가득 차서 total 은 count 결과로만 알 수 있다
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        Page<MemberTeamDTO> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2), PageStrategy.CONCURRENT_COUNT);
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2");
+    }
+
+    @Test
+    public void searchFacetsTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 45, null));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        MemberFacetDTO facets = memberRepository.searchFacets(condition, List.of(20, 40));
+
+        assertThat(facets.getTotal()).isEqualTo(4);
+        assertThat(facets.getTeams()).extracting("value").containsExactly("teamA", "teamB", null);
+        assertThat(facets.getTeams()).extracting("count").containsExactly(1L, 2L, 1L);
+        assertThat(facets.getAgeBuckets()).extracting("value").containsExactly("~19", "20~39", "40~");
+        assertThat(facets.getAgeBuckets()).extracting("count").containsExactly(0L, 2L, 2L);
+    }
+
+    @Test
+    public void searchPagingDeferredJoinTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "teamName").and(Sort.by("age")));
+        Page<MemberTeamDTO> result = memberRepository.searchPageComplex(condition, pageRequest, PageStrategy.DEFERRED_JOIN);
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(result.getContent()).extracting("teamName").containsOnly("teamA");
+    }
+
+    @Test
+    public void searchByCursorTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        CursorSlice<MemberTeamDTO> first = memberRepository.searchByCursor(condition, null, 3);
+
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+
+        CursorSlice<MemberTeamDTO> second = memberRepository.searchByCursor(condition, first.getNextCursor(), 3);
+
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+    }
+
     @Test
     public void queryDSLExecutorTest () throws Exception{
         Team teamA = new Team("teamA");
@@ -122,4 +283,36 @@ class MemberRepositoryTest {
             System.out.println("findMember = " + findMember);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void queryDeadlineTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        // deadline 안에서는 정상 실행 (query timeout 힌트만 걸림)
+        QueryDeadline.start(Duration.ofSeconds(10));
+        try {
+            assertThat(memberRepository.searchPageComplex(condition, pageRequest).getTotalElements()).isEqualTo(2);
+            assertThat(memberRepository.searchPageComplex(condition, pageRequest, PageStrategy.DEFERRED_JOIN).getTotalElements())
+                    .isEqualTo(2);
+        } finally {
+            QueryDeadline.stop();
+        }
+
+        // deadline 이 지나면 쿼리를 실행하지 않고 바로 실패 (템플릿 / QueryDSL 쿼리 모두)
+        QueryDeadline.start(Duration.ZERO);
+        try {
+            assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, pageRequest))
+                    .isInstanceOf(QueryTimeoutException.class);
+            assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, pageRequest, PageStrategy.DEFERRED_JOIN))
+                    .isInstanceOf(QueryTimeoutException.class);
+        } finally {
+            QueryDeadline.stop();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.FetchPlan;
+import study.querydsl.support.QueryCountAssertions.QueryCountScope;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.support.QueryCountAssertions.assertQueryCount;
+import static study.querydsl.support.QueryCountAssertions.startQueryCount;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberSupportRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    MemberSupportRepository memberSupportRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void entityGraphFetchPlanTest() throws Exception {
+        List<Member> result = memberSupportRepository.search(new MemberSearchCondition(), FetchPlan.graph(member.team));
+
+        assertThat(result).hasSize(4);
+        assertThat(result).allMatch(m -> emf.getPersistenceUnitUtil().isLoaded(m.getTeam()));
+    }
+
+    @Test
+    public void noFetchPlanTest() throws Exception {
+        List<Member> result = memberSupportRepository.search(new MemberSearchCondition(), null);
+
+        assertThat(result).noneMatch(m -> emf.getPersistenceUnitUtil().isLoaded(m.getTeam()));
+    }
+
+    @Test
+    public void batchFetchPlanTest() throws Exception {
+        Session session = em.unwrap(Session.class);
+        int batchSize = session.getFetchBatchSize();
+
+        List<Member> result;
+        try (QueryCountScope ignored = startQueryCount()) {
+            result = memberSupportRepository.search(new MemberSearchCondition(), FetchPlan.batch(100, member.team));
+            assertQueryCount(1 + 1); // member 조회 + team IN 조회 한 번
+        }
+
+        assertThat(result).allMatch(m -> emf.getPersistenceUnitUtil().isLoaded(m.getTeam()));
+        assertThat(session.getFetchBatchSize()).as("조회 후 세션 batch size 는 원래대로").isEqualTo(batchSize);
+    }
+
+    @Test
+    public void pagingWithFetchPlanTest() throws Exception {
+        Page<Member> result = memberSupportRepository.searchPage(
+                new MemberSearchCondition(), PageRequest.of(0, 3), FetchPlan.graph(member.team));
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(result.getContent()).allMatch(m -> emf.getPersistenceUnitUtil().isLoaded(m.getTeam()));
+    }
+
+    @Test
+    public void deferredJoinPagingTest() throws Exception {
+        Page<Member> result = memberSupportRepository.searchPageDeferred(
+                new MemberSearchCondition(), PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age")));
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting("username").containsExactly("member2", "member1");
+        assertThat(result.getContent()).allMatch(m -> emf.getPersistenceUnitUtil().isLoaded(m.getTeam()));
+    }
+}
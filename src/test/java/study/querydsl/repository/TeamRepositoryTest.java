@@ -0,0 +1,87 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Team;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시 / 쿼리 캐시는 커밋된 데이터만 공유하므로 테스트 트랜잭션(@Transactional) 없이 실행한다 (정리는 CommittedDataTestSupport)
+ */
+@SpringBootTest
+class TeamRepositoryTest extends CommittedDataTestSupport {
+
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    public void secondLevelCacheHitTest() throws Exception {
+        Team saved = teamRepository.save(new Team("teamA"));
+        emf.getCache().evictAll();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // 트랜잭션(영속성 컨텍스트)마다 새로 조회 - 첫 조회는 DB, 두 번째는 2차 캐시
+        TransactionTemplate readOnlyTx = readOnlyTx();
+        readOnlyTx.executeWithoutResult(status -> em.find(Team.class, saved.getId()));
+        readOnlyTx.executeWithoutResult(status -> em.find(Team.class, saved.getId()));
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Team.class.getName());
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getPutCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void queryCacheHitTest() throws Exception {
+        // 이름은 유일하지 않다
+        teamRepository.saveAll(List.of(new Team("teamA"), new Team("teamA"), new Team("teamB")));
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        TransactionTemplate readOnlyTx = readOnlyTx();
+        List<Team> first = readOnlyTx.execute(status -> teamRepository.findByName("teamA"));
+        List<Team> second = readOnlyTx.execute(status -> teamRepository.findByName("teamA"));
+
+        assertThat(first).hasSize(2);
+        assertThat(second).extracting("id").containsExactlyInAnyOrderElementsOf(first.stream().map(Team::getId).toList());
+        CacheRegionStatistics region = statistics.getQueryRegionStatistics(TeamRepository.TEAM_BY_NAME_REGION);
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getPutCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cacheMetricsTest() throws Exception {
+        // region 별 eviction 까지 micrometer 로 노출
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", Team.class.getName()).functionCounter()).isNotNull();
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", TeamRepository.TEAM_BY_NAME_REGION).functionCounter()).isNotNull();
+    }
+
+    private TransactionTemplate readOnlyTx() {
+        TransactionTemplate readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        return readOnlyTx;
+    }
+}
@@ -0,0 +1,57 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * QueryDSL update() / delete() 를 직접 실행해도 커밋 이후 벌크 이벤트로 검색 결과 캐시가 비워지는지 확인한다
+ * 캐시는 커밋된 데이터만 저장하므로 테스트 트랜잭션(@Transactional) 없이 실행한다 (정리는 CommittedDataTestSupport)
+ */
+@SpringBootTest
+class BulkChangeEventTest extends CommittedDataTestSupport {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void rawBulkUpdateEvictsSearchResultTest() throws Exception {
+        Team teamA = new Team("teamA");
+        memberJpaRepository.saveAll(List.of(new Member("member1", 10, teamA), new Member("member2", 20, teamA)));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member2");
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // 롤백된 벌크 연산은 이벤트를 발행하지 않으므로 캐시된 결과 그대로
+        tx.executeWithoutResult(status -> {
+            queryFactory.update(member).set(member.age, member.age.add(100)).execute();
+            status.setRollbackOnly();
+        });
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member2");
+
+        tx.executeWithoutResult(status -> queryFactory.update(member).set(member.age, member.age.add(100)).execute());
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+    }
+}
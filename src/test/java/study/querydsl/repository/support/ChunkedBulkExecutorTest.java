@@ -0,0 +1,68 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 청크마다 별도 트랜잭션으로 커밋되므로 테스트 트랜잭션(@Transactional) 없이 실행한다 (정리는 CommittedDataTestSupport)
+ */
+@SpringBootTest
+class ChunkedBulkExecutorTest extends CommittedDataTestSupport {
+
+    @Autowired
+    ChunkedBulkExecutor bulkExecutor;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Test
+    public void chunkedUpdateTest() throws Exception {
+        saveMembers(10);
+        List<BulkProgress> progresses = new ArrayList<>();
+
+        long affected = bulkExecutor.update(member, member.id, member.age.lt(5),
+                clause -> clause.set(member.age, member.age.add(100)),
+                new BulkOptions(2, Duration.ZERO).onProgress(progresses::add));
+
+        assertThat(affected).isEqualTo(5);
+        assertThat(progresses).hasSizeGreaterThan(1);
+        assertThat(progresses.get(progresses.size() - 1).isDone()).isTrue();
+        assertThat(queryFactory.selectFrom(member).where(member.age.goe(100)).fetch()).hasSize(5);
+    }
+
+    @Test
+    public void resumeAfterTest() throws Exception {
+        List<Member> members = saveMembers(10);
+        Long resumeAfterId = members.get(5).getId();
+
+        long affected = bulkExecutor.delete(member, member.id, null,
+                new BulkOptions(3, Duration.ZERO).resumeAfter(resumeAfterId));
+
+        assertThat(affected).isEqualTo(4);
+        assertThat(queryFactory.selectFrom(member).fetch()).hasSize(6);
+    }
+
+    private List<Member> saveMembers(int count) {
+        Team teamA = new Team("teamA");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("member" + i, i, teamA));
+        }
+        memberJpaRepository.saveAll(members);
+        return members;
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.listener.EntityChangedEvent;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountCacheTest {
+
+    @Test
+    public void blankConditionSharesEntryTest() throws Exception {
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1), 100);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setUsername("");
+        blank.setTeamName(" ");
+        MemberSearchCondition empty = new MemberSearchCondition();
+
+        assertThat(cache.getOrLoad(blank, () -> { loadCount.incrementAndGet(); return 4L; })).isEqualTo(4L);
+        assertThat(cache.getOrLoad(empty, () -> { loadCount.incrementAndGet(); return 5L; })).isEqualTo(4L);
+        assertThat(loadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateOnMemberChangeTest() throws Exception {
+        MemberCountCache cache = new MemberCountCache(Duration.ofMinutes(1), 100);
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        cache.getOrLoad(condition, () -> 4L);
+        cache.onEntityChanged(EntityChangedEvent.bulk(Member.class));
+
+        assertThat(cache.getOrLoad(condition, () -> 3L)).isEqualTo(3L);
+    }
+}
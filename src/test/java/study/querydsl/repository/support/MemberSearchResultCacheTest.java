@@ -0,0 +1,98 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.unit.DataSize;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.entity.TeamStats;
+import study.querydsl.entity.listener.EntityChangedEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchResultCacheTest {
+
+    @Test
+    public void hitAndTagInvalidationTest() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MemberSearchResultCache cache = new MemberSearchResultCache(registry, DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+        AtomicInteger loadCount = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        List<MemberTeamDTO> rows = List.of(new MemberTeamDTO(1L, "member1", 10, 1L, "teamA"));
+        cache.getList(condition, () -> { loadCount.incrementAndGet(); return rows; });
+        cache.getList(condition, () -> { loadCount.incrementAndGet(); return rows; });
+        assertThat(loadCount.get()).isEqualTo(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "member.search.result").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+
+        // 관련 없는 엔티티 변경은 무시
+        cache.onEntityChanged(EntityChangedEvent.bulk(TeamStats.class));
+        cache.getList(condition, () -> { loadCount.incrementAndGet(); return rows; });
+        assertThat(loadCount.get()).isEqualTo(1);
+
+        cache.onEntityChanged(EntityChangedEvent.bulk(Team.class));
+        cache.getList(condition, () -> { loadCount.incrementAndGet(); return rows; });
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void pageKeyIncludesPageableTest() throws Exception {
+        MemberSearchResultCache cache = new MemberSearchResultCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        AtomicInteger loadCount = new AtomicInteger();
+
+        Page<MemberTeamDTO> first = cache.getPage(condition, PageRequest.of(0, 10), () -> {
+            loadCount.incrementAndGet();
+            return new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
+        });
+        cache.getPage(condition, PageRequest.of(1, 10), () -> {
+            loadCount.incrementAndGet();
+            return new PageImpl<>(List.of(), PageRequest.of(1, 10), 0);
+        });
+        cache.onEntityChanged(new EntityChangedEvent(Member.class, EntityChangedEvent.ChangeType.INSERT, 1L, null));
+        cache.getPage(condition, PageRequest.of(0, 10), () -> {
+            loadCount.incrementAndGet();
+            return first;
+        });
+
+        assertThat(loadCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void cachedRowsAreCopiedTest() throws Exception {
+        MemberSearchResultCache cache = new MemberSearchResultCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        List<MemberTeamDTO> rows = List.of(new MemberTeamDTO(1L, "member1", 10, 1L, "teamA"));
+
+        // 로더가 돌려준 row, 첫 조회 결과, 캐시 적중 결과를 바꿔도 다음 조회에는 보이지 않는다
+        List<MemberTeamDTO> first = cache.getList(condition, () -> rows);
+        rows.get(0).setUsername("loader");
+        first.get(0).setUsername("first");
+        List<MemberTeamDTO> second = cache.getList(condition, () -> rows);
+        assertThat(second).extracting("username").containsExactly("member1");
+        second.get(0).setAge(99);
+        assertThat(cache.getList(condition, () -> rows)).extracting("age").containsExactly(10);
+
+        PageRequest pageable = PageRequest.of(0, 10);
+        Page<MemberTeamDTO> page = cache.getPage(condition, pageable,
+                () -> new PageImpl<>(List.of(new MemberTeamDTO(2L, "member2", 20, 1L, "teamA")), pageable, 1));
+        page.getContent().get(0).setTeamName("changed");
+        Page<MemberTeamDTO> cached = cache.getPage(condition, pageable, () -> {
+            throw new AssertionError("should be cached");
+        });
+        assertThat(cached.getContent()).extracting("teamName").containsExactly("teamA");
+        assertThat(cached.getTotalElements()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,136 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 인덱스는 커밋된 변경 이벤트로 갱신되므로 테스트 트랜잭션(@Transactional) 없이 실행한다 (정리는 CommittedDataTestSupport)
+ * 후보를 여러 batch 로 나눠 조회하는 경우까지 보기 위해 batch-size 를 작게 둔다.
+ */
+@SpringBootTest(properties = "querydsl.username-index.batch-size=2")
+class MemberUsernameIndexTest extends CommittedDataTestSupport {
+
+    @Autowired
+    MemberUsernameIndex usernameIndex;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void prefixAndContainsTest() throws Exception {
+        Team teamA = new Team("teamA");
+        memberJpaRepository.saveAll(List.of(
+                new Member("alice", 10, teamA),
+                new Member("Alicia", 20, teamA),
+                new Member("bob", 30, teamA),
+                new Member("malice", 40, teamA)));
+        assertThat(usernameIndex.isReady()).isTrue();
+
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setUsernameStartsWith("ali");
+        assertThat(memberRepository.search(prefix)).extracting("username").containsExactly("alice", "Alicia");
+
+        MemberSearchCondition contains = new MemberSearchCondition();
+        contains.setUsernameContains("lic");
+        contains.setAgeGoe(20);
+        assertThat(memberRepository.search(contains)).extracting("username").containsExactly("Alicia", "malice");
+
+        MemberSearchCondition shortFragment = new MemberSearchCondition();
+        shortFragment.setUsernameContains("o");
+        Page<MemberTeamDTO> page = memberRepository.searchPageComplex(shortFragment, PageRequest.of(0, 10));
+        assertThat(page.getContent()).extracting("username").containsExactly("bob");
+        assertThat(page.getTotalElements()).isEqualTo(1);
+
+        MemberSearchCondition none = new MemberSearchCondition();
+        none.setUsernameStartsWith("zzz");
+        assertThat(memberRepository.search(none)).isEmpty();
+        assertThat(memberRepository.searchPageSimple(none, PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    @Test
+    public void updateAndDeleteTest() throws Exception {
+        Member member1 = new Member("carol", 10);
+        memberJpaRepository.saveAll(List.of(member1));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberJpaRepository.findById(member1.getId()).ifPresent(found -> found.setUsername("dave")));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameStartsWith("car");
+        assertThat(usernameIndex.findIds(condition)).isEmpty();
+        condition.setUsernameStartsWith("dav");
+        assertThat(usernameIndex.findIds(condition)).containsExactly(member1.getId());
+    }
+
+    @Test
+    public void staleCandidateTest() throws Exception {
+        Team teamA = new Team("teamA");
+        memberJpaRepository.saveAll(List.of(
+                new Member("erin1", 10, teamA),
+                new Member("erin2", 20, teamA),
+                new Member("erin3", 30, teamA)));
+
+        // 엔티티 이벤트 없이 지운 row 는 인덱스에 후보로 남는다
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username = 'erin2'").executeUpdate());
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameStartsWith("erin");
+        assertThat(usernameIndex.findIds(condition)).hasSize(3);
+
+        // 전체 수와 페이지는 DB 기준
+        Page<MemberTeamDTO> first = memberRepository.searchPageSimple(condition, PageRequest.of(0, 1));
+        assertThat(first.getTotalElements()).isEqualTo(2);
+        assertThat(first.getContent()).extracting("username").containsExactly("erin1");
+        Page<MemberTeamDTO> second = memberRepository.searchPageSimple(condition, PageRequest.of(1, 1));
+        assertThat(second.getContent()).extracting("username").containsExactly("erin3");
+    }
+
+    @Test
+    public void candidatesBeyondBatchSizeTest() throws Exception {
+        Team teamA = new Team("teamA");
+        memberJpaRepository.saveAll(List.of(
+                new Member("frank1", 10, teamA),
+                new Member("frank2", 20, teamA),
+                new Member("frank3", 30, teamA),
+                new Member("frank4", 40, teamA),
+                new Member("frank5", 50, teamA)));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username = 'frank2'").executeUpdate());
+
+        // 후보가 batch-size 보다 많아도 like 로 바꾸지 않고 batch 단위로 DB 에서 확인하며 페이지를 채운다
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernameStartsWith("fra");
+        assertThat(usernameIndex.findIds(condition)).hasSize(5);
+        assertThat(usernameIndex.predicate(condition).toString()).contains("member1.id in");
+
+        Page<MemberTeamDTO> first = memberRepository.searchPageSimple(condition, PageRequest.of(0, 3));
+        assertThat(first.getContent()).extracting("username").containsExactly("frank1", "frank3", "frank4");
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        Page<MemberTeamDTO> second = memberRepository.searchPageSimple(condition, PageRequest.of(1, 3));
+        assertThat(second.getContent()).extracting("username").containsExactly("frank5");
+        assertThat(memberRepository.search(condition)).extracting("username")
+                .containsExactly("frank1", "frank3", "frank4", "frank5");
+    }
+}
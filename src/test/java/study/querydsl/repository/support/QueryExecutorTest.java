@@ -0,0 +1,125 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.PageStrategy;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * count 는 별도 스레드 / 트랜잭션에서 실행되므로 테스트 트랜잭션(@Transactional) 없이 커밋된 데이터로 검증한다 (정리는 CommittedDataTestSupport)
+ */
+@SpringBootTest
+class QueryExecutorTest extends CommittedDataTestSupport {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void concurrentCountUsedTest() throws Exception {
+        saveMembers(25);
+
+        // 첫 페이지가 가득 차서 total 은 count 결과로만 알 수 있다
+        Page<MemberTeamDTO> result = memberRepository.searchPageComplex(new MemberSearchCondition(),
+                PageRequest.of(0, 10), PageStrategy.CONCURRENT_COUNT);
+
+        assertThat(result.getContent()).hasSize(10);
+        assertThat(result.getTotalElements()).isEqualTo(25);
+        assertThat(result.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    public void noConnectionPermitRunsInlineTest() throws Exception {
+        QueryExecutor queryExecutor = new QueryExecutor(transactionManager, 2, 16, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // 백그라운드 작업이 하나뿐인 커넥션 허용 수를 차지하고 있는 동안
+            queryExecutor.runInBackground(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            AtomicReference<Thread> countThread = new AtomicReference<>();
+            Page<Integer> page = queryExecutor.pageWithConcurrentCount(PageRequest.of(0, 2),
+                    () -> List.of(1, 2),
+                    () -> {
+                        countThread.set(Thread.currentThread());
+                        return 7L;
+                    });
+
+            // 허용 수가 없으면 다른 커넥션을 기다리지 않고 호출한 스레드에서 실행한다
+            assertThat(page.getTotalElements()).isEqualTo(7);
+            assertThat(countThread.get()).isSameAs(Thread.currentThread());
+        } finally {
+            release.countDown();
+            queryExecutor.destroy();
+        }
+    }
+
+    @Test
+    public void cancelledBeforeStartIsSkippedTest() throws Exception {
+        QueryExecutor queryExecutor = new QueryExecutor(transactionManager, 1, 16, 2);
+        try {
+            // 작업 스레드를 잡아두고 그 뒤에 쌓인 작업을 시작 전에 취소한다
+            CountDownLatch release = new CountDownLatch(1);
+            queryExecutor.getExecutor().execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            AtomicBoolean executed = new AtomicBoolean();
+            CompletableFuture<Long> count = queryExecutor.submitReadOnly(() -> {
+                executed.set(true);
+                return 1L;
+            });
+            count.cancel(true);
+            release.countDown();
+
+            // 취소된 작업 뒤에 넣은 작업이 끝나면 앞의 작업도 처리된 것
+            assertThat(queryExecutor.submitReadOnly(() -> 2L).get(5, TimeUnit.SECONDS)).isEqualTo(2L);
+            assertThat(executed).isFalse();
+        } finally {
+            queryExecutor.destroy();
+        }
+    }
+
+    private void saveMembers(int count) {
+        Team teamA = new Team("teamA");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("member" + i, i, teamA));
+        }
+        memberJpaRepository.saveAll(members);
+    }
+}
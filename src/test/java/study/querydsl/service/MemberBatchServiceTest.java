@@ -0,0 +1,93 @@
+package study.querydsl.service;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.support.BulkOperationException;
+import study.querydsl.repository.support.BulkOptions;
+import study.querydsl.repository.support.BulkProgress;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * window 마다 별도 스레드 / 트랜잭션에서 커밋되므로 테스트 트랜잭션(@Transactional) 없이 실행한다 (정리는 CommittedDataTestSupport)
+ */
+@SpringBootTest
+class MemberBatchServiceTest extends CommittedDataTestSupport {
+
+    @Autowired
+    MemberBatchService memberBatchService;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Test
+    public void forEachMemberChunkTest() throws Exception {
+        saveMembers(20);
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+        List<BulkProgress> progresses = new CopyOnWriteArrayList<>();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        long count = memberBatchService.forEachMemberChunk(condition,
+                new BulkOptions(3, Duration.ZERO).onProgress(progresses::add), 4,
+                members -> members.forEach(m -> {
+                    processed.add(m.getId());
+                    m.setAge(m.getAge() + 100); // 청크 커밋 시 반영
+                }));
+
+        assertThat(count).isEqualTo(10);
+        assertThat(processed).hasSize(10);
+        assertThat(progresses).anyMatch(BulkProgress::isDone);
+        assertThat(queryFactory.selectFrom(member).where(member.age.goe(100)).fetch()).hasSize(10);
+    }
+
+    @Test
+    public void resumeAfterFailureTest() throws Exception {
+        List<Long> ids = saveMembers(10);
+        Long failingId = ids.get(6);
+        Set<Long> processed = ConcurrentHashMap.newKeySet();
+
+        BulkOperationException e = catchThrowableOfType(() -> memberBatchService.forEachMemberChunk(
+                new MemberSearchCondition(), 2, 1, members -> members.forEach(m -> {
+                    if (m.getId().equals(failingId)) {
+                        throw new IllegalStateException("fail");
+                    }
+                    processed.add(m.getId());
+                })), BulkOperationException.class);
+
+        assertThat(e.getLastCompletedId()).isLessThan(failingId);
+
+        memberBatchService.forEachMemberChunk(new MemberSearchCondition(),
+                new BulkOptions(2, Duration.ZERO).resumeAfter(e.getLastCompletedId()), 2,
+                members -> members.forEach(m -> processed.add(m.getId())));
+        assertThat(processed).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    private List<Long> saveMembers(int count) {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+        }
+        memberJpaRepository.saveAll(members);
+        return members.stream().map(Member::getId).toList();
+    }
+}
@@ -0,0 +1,89 @@
+package study.querydsl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberExportServiceTest {
+
+    @Autowired
+    MemberExportService memberExportService;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void csvQuotingTest() throws Exception {
+        Team team = new Team("team, \"A\"");
+        em.persist(team);
+        Member member = new Member("line1\nline2", 10, team);
+        em.persist(member);
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team, \"A\"");
+        String csv = export(condition, ExportFormat.CSV, 1);
+
+        // 쉼표 / 따옴표 / 줄바꿈이 있는 값만 따옴표로 감싸고 안의 따옴표는 두 번 쓴다
+        assertThat(csv).isEqualTo("memberId,username,age,teamId,teamName\n"
+                + member.getId() + ",\"line1\nline2\",10," + team.getId() + ",\"team, \"\"A\"\"\"\n");
+    }
+
+    @Test
+    public void csvWithoutTeamTest() throws Exception {
+        Member member = new Member("plain", 20);
+        em.persist(member);
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("plain");
+        assertThat(export(condition, ExportFormat.CSV, 1))
+                .isEqualTo("memberId,username,age,teamId,teamName\n" + member.getId() + ",plain,20,,\n");
+    }
+
+    @Test
+    public void ndjsonTest() throws Exception {
+        Team team = new Team("teamA");
+        em.persist(team);
+        em.persist(new Member("member1", 30, team));
+        em.persist(new Member("member2", 30, team));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        String ndjson = export(condition, ExportFormat.NDJSON, 2);
+
+        // 한 줄에 JSON 객체 하나
+        String[] lines = ndjson.split("\n");
+        assertThat(ndjson).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            assertThat(row.get("age").asInt()).isEqualTo(30);
+            assertThat(row.get("teamName").asText()).isEqualTo("teamA");
+        }
+        assertThat(lines).anyMatch(line -> line.contains("\"username\":\"member1\""))
+                .anyMatch(line -> line.contains("\"username\":\"member2\""));
+    }
+
+    private String export(MemberSearchCondition condition, ExportFormat format, long expectedCount) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(memberExportService.export(condition, format, out)).isEqualTo(expectedCount);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,167 @@
+package study.querydsl.service;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatsDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.CommittedDataTestSupport;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 통계는 커밋 직전에 반영되므로 테스트 트랜잭션(@Transactional) 없이 실제로 커밋한다 (정리는 CommittedDataTestSupport)
+ */
+@SpringBootTest
+class TeamStatsServiceTest extends CommittedDataTestSupport {
+
+    @Autowired
+    TeamStatsService teamStatsService;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void incrementalStatsTest() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long[] ids = tx.execute(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("member1", 10, teamA);
+            Member member2 = new Member("member2", 20, teamA);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(new Member("member3", 30, teamB));
+            return new Long[]{teamA.getId(), teamB.getId(), member1.getId(), member2.getId()};
+        });
+
+        assertThat(stats(ids[0])).extracting("memberCount", "averageAge", "minAge", "maxAge").containsExactly(2L, 15.0, 10, 20);
+        assertThat(stats(ids[1])).extracting("memberCount", "minAge", "maxAge").containsExactly(1L, 30, 30);
+
+        // member1 을 teamB 로 이동하고 나이 변경, member2 삭제
+        tx.executeWithoutResult(status -> {
+            Member member1 = em.find(Member.class, ids[2]);
+            member1.setTeam(em.find(Team.class, ids[1]));
+            member1.setAge(40);
+            em.remove(em.find(Member.class, ids[3]));
+        });
+
+        assertThat(stats(ids[0])).extracting("memberCount", "minAge", "maxAge").containsExactly(0L, null, null);
+        assertThat(stats(ids[1])).extracting("memberCount", "averageAge", "minAge", "maxAge").containsExactly(2L, 35.0, 30, 40);
+        assertThat(teamStatsService.findInconsistentTeams()).isEmpty();
+    }
+
+    @Test
+    public void rebuildTest() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamId = tx.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            return teamA.getId();
+        });
+
+        // 이벤트를 발행하지 않는 JPQL 벌크 연산으로 통계와 어긋나게 만든다
+        tx.executeWithoutResult(status -> em.createQuery("update Member m set m.age = m.age + 1").executeUpdate());
+        assertThat(teamStatsService.findInconsistentTeams()).containsExactly(teamId);
+
+        assertThat(teamStatsService.rebuild()).isEqualTo(1);
+        assertThat(teamStatsService.findInconsistentTeams()).isEmpty();
+        assertThat(stats(teamId)).extracting("memberCount", "minAge", "maxAge").containsExactly(2L, 11, 21);
+    }
+
+    @Test
+    public void queryDslBulkUpdateRepairsStatsTest() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamId = tx.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            return teamA.getId();
+        });
+
+        // QueryDSL 벌크 연산은 커밋 후 BULK 이벤트 -> 비동기 재계산
+        tx.executeWithoutResult(status -> queryFactory.update(member).set(member.age, member.age.add(1)).execute());
+
+        awaitConsistent();
+        assertThat(stats(teamId)).extracting("memberCount", "minAge", "maxAge").containsExactly(2L, 11, 21);
+    }
+
+    @Test
+    public void missingStatsRowIsRebuiltTest() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamId = tx.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            return teamA.getId();
+        });
+        // 통계 row 가 없는 기존 팀 (통계 도입 전 데이터 등)
+        tx.executeWithoutResult(status -> em.createQuery("delete from TeamStats").executeUpdate());
+
+        // 없는 row 는 lock 을 잡거나 새로 만들지 않고 커밋 후 재계산으로 채운다
+        tx.executeWithoutResult(status -> em.persist(new Member("member1", 10, em.find(Team.class, teamId))));
+
+        awaitConsistent();
+        assertThat(stats(teamId)).extracting("memberCount", "minAge", "maxAge").containsExactly(1L, 10, 10);
+    }
+
+    @Test
+    public void ageRangeSeesConcurrentCommitTest() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long[] ids = tx.execute(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            Member oldest = new Member("member2", 30, teamA);
+            em.persist(oldest);
+            return new Long[]{teamA.getId(), oldest.getId()};
+        });
+
+        // 가장 나이 많은 회원을 지우는 트랜잭션이 스냅샷을 잡은 뒤, 다른 트랜잭션이 더 나이 많은 회원을 먼저 커밋
+        tx.executeWithoutResult(status -> {
+            em.createQuery("select count(m) from Member m").getSingleResult(); // 첫 일반 select 시점에 스냅샷이 정해진다
+            Member oldest = em.find(Member.class, ids[1]);
+            Thread other = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(
+                    otherStatus -> em.persist(new Member("member3", 50, em.find(Team.class, ids[0])))));
+            other.start();
+            try {
+                other.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            em.remove(oldest);
+        });
+
+        // 최대값은 스냅샷이 아니라 커밋된 최신 회원 기준이어야 한다
+        assertThat(stats(ids[0])).extracting("memberCount", "minAge", "maxAge").containsExactly(2L, 10, 50);
+        assertThat(teamStatsService.findInconsistentTeams()).isEmpty();
+    }
+
+    private void awaitConsistent() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!teamStatsService.findInconsistentTeams().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(teamStatsService.findInconsistentTeams()).isEmpty();
+    }
+
+    private TeamStatsDTO stats(Long teamId) {
+        List<TeamStatsDTO> stats = teamStatsService.findAll();
+        return stats.stream().filter(s -> s.getTeamId().equals(teamId)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.support;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.support.MemberCountCache;
+import study.querydsl.repository.support.MemberSearchResultCache;
+import study.querydsl.repository.support.MemberUsernameIndex;
+
+/**
+ * 다른 스레드 / 트랜잭션에서 커밋된 데이터를 봐야 해서 테스트 트랜잭션(@Transactional) 없이 실행하는 테스트의 공통 정리
+ * 테스트 전후로 member / team / team_stats 를 지우고, 같은 스프링 컨텍스트를 쓰는 다음 테스트 클래스가
+ * 지워진 데이터를 보지 않도록 username 인덱스와 검색 캐시도 다시 맞춘다.
+ * 삭제는 엔티티 / 벌크 이벤트를 발행하지 않는 JPQL 로 하고, 파생 상태는 여기서 동기로 정리한다
+ * (이벤트로 시작되는 비동기 재적재가 다음 테스트와 겹치지 않도록).
+ */
+@SpringBootTest
+public abstract class CommittedDataTestSupport {
+
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MemberUsernameIndex usernameIndex;
+    @Autowired
+    private MemberSearchResultCache resultCache;
+    @Autowired
+    private MemberCountCache countCache;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanUpCommittedData() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from TeamStats").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        usernameIndex.load();
+        resultCache.invalidate(MemberSearchResultCache.MEMBER);
+        resultCache.invalidate(MemberSearchResultCache.TEAM);
+        countCache.invalidateAll();
+    }
+}
@@ -0,0 +1,50 @@
+package study.querydsl.support;
+
+import study.querydsl.monitor.QueryCount;
+import study.querydsl.monitor.QueryCountHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 테스트에서 실행된 SQL 수를 검증하기 위한 헬퍼
+ * <pre>
+ * try (QueryCountScope ignored = startQueryCount()) {
+ *     ... 조회 ...
+ *     assertQueryCount(1);
+ * }
+ * </pre>
+ * 검증이 실패해도 스레드 로컬 카운터가 남아 같은 스레드의 다음 테스트에 섞이지 않도록 scope 로 닫는다.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static QueryCountScope startQueryCount() {
+        QueryCountHolder.start();
+        return new QueryCountScope();
+    }
+
+    public static void stopQueryCount() {
+        QueryCountHolder.stop();
+    }
+
+    public static void assertQueryCount(long expected) {
+        QueryCount count = QueryCountHolder.current();
+        assertThat(count).as("startQueryCount() 를 먼저 호출해야 함").isNotNull();
+        assertThat(count.getTotal())
+                .as("executed statements %s", count.getByShape())
+                .isEqualTo(expected);
+    }
+
+    public static final class QueryCountScope implements AutoCloseable {
+
+        private QueryCountScope() {
+        }
+
+        @Override
+        public void close() {
+            stopQueryCount();
+        }
+    }
+}